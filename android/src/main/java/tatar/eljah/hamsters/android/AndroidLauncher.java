@@ -4,7 +4,9 @@ import android.os.Bundle;
 
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
+import tatar.eljah.hamsters.CrashHandler;
 import tatar.eljah.hamsters.Main;
+import tatar.eljah.hamsters.SimulationThread;
 
 /** Launches the Android application. */
 public class AndroidLauncher extends AndroidApplication {
@@ -13,6 +15,9 @@ public class AndroidLauncher extends AndroidApplication {
         super.onCreate(savedInstanceState);
         AndroidApplicationConfiguration configuration = new AndroidApplicationConfiguration();
         configuration.useImmersiveMode = true; // Recommended, but not required.
-        initialize(new Main(), configuration);
+        Main main = new Main();
+        main.setSimulationLoop(new SimulationThread());
+        CrashHandler.install(main);
+        initialize(main, configuration);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package tatar.eljah.hamsters;
+
+/**
+ * The eight cells around a grid cell, which the arena and chunk generators look at to tell whether a
+ * cell can be blocked without cutting the free cells in two.
+ */
+public final class CellRing {
+    /** Which cells are free; callers decide how cells outside their grid count. */
+    public interface Occupancy {
+        boolean isFree(int x, int y);
+    }
+
+    // Counter-clockwise from the right; even indices are the orthogonal neighbours.
+    static final int[] X = {1, 1, 0, -1, -1, -1, 0, 1};
+    static final int[] Y = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private CellRing() {
+    }
+
+    /**
+     * Counts the runs of free cells around (x, y) that hold at least one of its orthogonal neighbours.
+     * With at most one, those neighbours are joined through the ring, so any path through (x, y) can go
+     * around it and blocking it splits nothing. With more, only a search further away can tell.
+     */
+    public static int neighbourRuns(Occupancy cells, int x, int y) {
+        // Walk the ring once, starting just past a blocked cell so that no run of free cells wraps around.
+        int start = -1;
+        for (int i = 0; i < 8 && start < 0; i++) {
+            if (!cells.isFree(x + X[i], y + Y[i])) start = i;
+        }
+        if (start < 0) return 1;
+        int runs = 0;
+        boolean runHasNeighbour = false;
+        for (int step = 1; step <= 8; step++) {
+            int i = (start + step) & 7;
+            if (!cells.isFree(x + X[i], y + Y[i])) {
+                runHasNeighbour = false;
+            } else if ((i & 1) == 0 && !runHasNeighbour) {
+                runHasNeighbour = true;
+                runs++;
+            }
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,37 @@
+package tatar.eljah.hamsters;
+
+/**
+ * Saves the flight record when any thread dies, including from an {@link Error} such as running out
+ * of memory or stack, which {@link Main#render()} doesn't see when it happens on the simulation
+ * thread or in a backend. Then passes the failure on to the handler that was installed before. Not
+ * available in the web build.
+ */
+public final class CrashHandler implements Thread.UncaughtExceptionHandler {
+    private final Main main;
+    private final Thread.UncaughtExceptionHandler next;
+
+    private CrashHandler(Main main, Thread.UncaughtExceptionHandler next) {
+        this.main = main;
+        this.next = next;
+    }
+
+    /** Makes {@code main} dump its flight record on every uncaught exception in this process. */
+    public static void install(Main main) {
+        Thread.setDefaultUncaughtExceptionHandler(new CrashHandler(main, Thread.getDefaultUncaughtExceptionHandler()));
+    }
+
+    @Override
+    public void uncaughtException(Thread thread, Throwable e) {
+        try {
+            main.recordCrash(e);
+        } catch (Throwable ignored) {
+            // The original failure matters more than a failed dump.
+        }
+        if (next != null) {
+            next.uncaughtException(thread, e);
+        } else {
+            System.err.print("Exception in thread \"" + thread.getName() + "\" ");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Integer-only movement, bouncing and collision for a {@link GameWorld} in fixed-point mode.
+ * Positions are in 1/{@value #ONE} pixel units and time advances in whole ticks, so HotSpot, ART and
+ * the JavaScript build all compute exactly the same thing. Float arithmetic doesn't give that
+ * guarantee: GWT keeps floats in doubles, and {@code Vector2.nor()} rounds differently across backends.
+ * After every step the rectangles in the {@link RoundState} are updated from the integers. That
+ * conversion is exact, so the renderer and snapshots need no changes.
+ */
+final class FixedPointMotion {
+    static final int ONE = 256;
+    static final int TICKS_PER_SECOND = 60;
+    static final float TICK = 1f / TICKS_PER_SECOND;
+
+    static final int HAMSTER_STEP = Math.round(GameWorld.HAMSTER_SPEED * ONE / TICKS_PER_SECOND);
+    static final int GRADE_STEP = Math.round(GameWorld.GRADE_SPEED * ONE / TICKS_PER_SECOND);
+    static final int AUTO_WIN_TICKS = Math.round(GameWorld.AUTO_WIN_DELAY * TICKS_PER_SECOND);
+    static final int GAME_OVER_INPUT_TICKS = Math.round(GameWorld.GAME_OVER_INPUT_DELAY * TICKS_PER_SECOND);
+    static final int GAME_OVER_AUTO_RESET_TICKS = Math.round(GameWorld.GAME_OVER_AUTO_RESET_DELAY * TICKS_PER_SECOND);
+    static final int GRADE_SURVIVAL_TICKS = Math.round(GameWorld.GRADE_SURVIVAL_TIME * TICKS_PER_SECOND);
+
+    private static final int SIZE = GameWorld.CELL_SIZE * ONE;
+    private static final int MAX_X = (GameWorld.WORLD_WIDTH - GameWorld.CELL_SIZE) * ONE;
+    private static final int MAX_Y = (GameWorld.WORLD_HEIGHT - GameWorld.CELL_SIZE) * ONE;
+
+    int hamsterX;
+    int hamsterY;
+    int gradeX;
+    int gradeY;
+    /** Grade direction with a length of about {@link #ONE}. */
+    int directionX;
+    int directionY;
+    int roundTicks;
+    int gameOverTicks;
+
+    /** Takes over a freshly generated round and picks the grade's direction with integers only. */
+    void startRound(RoundState round, RandomXS128 random) {
+        hamsterX = toFixed(round.hamster.x);
+        hamsterY = toFixed(round.hamster.y);
+        gradeX = toFixed(round.grade.x);
+        gradeY = toFixed(round.grade.y);
+        int dx;
+        int dy;
+        do {
+            dx = random.nextInt(2 * ONE + 1) - ONE;
+            dy = random.nextInt(2 * ONE + 1) - ONE;
+        } while (dx == 0 && dy == 0);
+        int length = isqrt(dx * dx + dy * dy);
+        directionX = dx * ONE / length;
+        directionY = dy * ONE / length;
+        roundTicks = 0;
+        gameOverTicks = 0;
+        store(round);
+    }
+
+    /** Re-reads the state after a snapshot restore; the float images are exact, so this is lossless. */
+    void load(RoundState round) {
+        hamsterX = toFixed(round.hamster.x);
+        hamsterY = toFixed(round.hamster.y);
+        gradeX = toFixed(round.grade.x);
+        gradeY = toFixed(round.grade.y);
+        directionX = toFixed(round.gradeDirection.x);
+        directionY = toFixed(round.gradeDirection.y);
+        roundTicks = Math.round(round.autoWinTimer * TICKS_PER_SECOND);
+        gameOverTicks = Math.round(round.gameOverElapsed * TICKS_PER_SECOND);
+    }
+
+    void move(RoundState round, HamsterInput input, HamsterInput gradeInput) {
+        if (input.left) hamsterX -= HAMSTER_STEP;
+        if (input.right) hamsterX += HAMSTER_STEP;
+        if (input.up) hamsterY += HAMSTER_STEP;
+        if (input.down) hamsterY -= HAMSTER_STEP;
+        hamsterX = clamp(hamsterX, MAX_X);
+        hamsterY = clamp(hamsterY, MAX_Y);
+
+        if (gradeInput != null) {
+            directionX = (gradeInput.right ? ONE : 0) - (gradeInput.left ? ONE : 0);
+            directionY = (gradeInput.up ? ONE : 0) - (gradeInput.down ? ONE : 0);
+        }
+        gradeX += directionX * GRADE_STEP / ONE;
+        gradeY += directionY * GRADE_STEP / ONE;
+        if (gradeX < 0 || gradeX > MAX_X) directionX = -directionX;
+        if (gradeY < 0 || gradeY > MAX_Y) directionY = -directionY;
+
+        for (int i = 0; i < round.blockCellCount && round.blocks.size > 0; i++) {
+            int cell = round.blockCells[i];
+            int blockX = cell / GameWorld.GRID_HEIGHT * SIZE;
+            int blockY = cell % GameWorld.GRID_HEIGHT * SIZE;
+
+            int overlapX = overlap(hamsterX, blockX);
+            int overlapY = overlap(hamsterY, blockY);
+            if (overlapX > 0 && overlapY > 0) {
+                if (overlapX < overlapY) {
+                    hamsterX += hamsterX < blockX ? -overlapX : overlapX;
+                } else {
+                    hamsterY += hamsterY < blockY ? -overlapY : overlapY;
+                }
+            }
+
+            overlapX = overlap(gradeX, blockX);
+            overlapY = overlap(gradeY, blockY);
+            if (overlapX > 0 && overlapY > 0) {
+                if (overlapX < overlapY) {
+                    gradeX += gradeX < blockX ? -overlapX : overlapX;
+                    directionX = -directionX;
+                } else {
+                    gradeY += gradeY < blockY ? -overlapY : overlapY;
+                    directionY = -directionY;
+                }
+            }
+        }
+
+        hamsterX = clamp(hamsterX, MAX_X);
+        hamsterY = clamp(hamsterY, MAX_Y);
+        gradeX = clamp(gradeX, MAX_X);
+        gradeY = clamp(gradeY, MAX_Y);
+        store(round);
+    }
+
+    boolean hamsterTouchesGrade() {
+        return overlap(hamsterX, gradeX) > 0 && overlap(hamsterY, gradeY) > 0;
+    }
+
+    /** Mixes the integer state into {@code hash}; equal on every backend for equal inputs. */
+    int hash(int hash) {
+        hash = 31 * hash + hamsterX;
+        hash = 31 * hash + hamsterY;
+        hash = 31 * hash + gradeX;
+        hash = 31 * hash + gradeY;
+        hash = 31 * hash + directionX;
+        hash = 31 * hash + directionY;
+        hash = 31 * hash + roundTicks;
+        return 31 * hash + gameOverTicks;
+    }
+
+    private void store(RoundState round) {
+        set(round.hamster, hamsterX, hamsterY);
+        set(round.grade, gradeX, gradeY);
+        round.gradeDirection.set(toFloat(directionX), toFloat(directionY));
+    }
+
+    private static void set(Rectangle rectangle, int x, int y) {
+        rectangle.set(toFloat(x), toFloat(y), GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+    }
+
+    /** Length of the overlap of two cell-sized spans starting at {@code a} and {@code b}, or zero or less. */
+    private static int overlap(int a, int b) {
+        return Math.min(a, b) + SIZE - Math.max(a, b);
+    }
+
+    private static int clamp(int value, int max) {
+        return value < 0 ? 0 : value > max ? max : value;
+    }
+
+    private static int toFixed(float value) {
+        return Math.round(value * ONE);
+    }
+
+    private static float toFloat(int fixed) {
+        return fixed / (float) ONE;
+    }
+
+    static int isqrt(int value) {
+        int root = 0;
+        int bit = 1 << 30;
+        while (bit > value) bit >>= 2;
+        while (bit != 0) {
+            if (value >= root + bit) {
+                value -= root + bit;
+                root = (root >> 1) + bit;
+            } else {
+                root >>= 1;
+            }
+            bit >>= 2;
+        }
+        return root;
+    }
+}
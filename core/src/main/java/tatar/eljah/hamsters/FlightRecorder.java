@@ -0,0 +1,242 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.NumberUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Keeps the last {@code seconds} of play in preallocated rings so a glitch can be replayed later:
+ * one record per tick (tick delta, buttons, flags, both positions, the longest frame drawn since the
+ * previous tick) plus a full {@link RoundSnapshot}
+ * every {@value #KEYFRAME_INTERVAL} ticks to start a replay from. Recording a tick is a handful of
+ * array stores and allocates nothing, so it stays on in release builds. It also flags anomalies, such
+ * as the hamster left inside a block or a position that isn't a number.
+ * <p>
+ * Dump layout (big-endian): magic {@code "HFR2"}, reason length and ASCII bytes, wall-clock millis,
+ * tick record count, keyframe count, the keyframes (tick, then {@link RoundSnapshot#BYTES} bytes) and
+ * then the tick records of {@value #RECORD_INTS} ints each, oldest first.
+ */
+public final class FlightRecorder {
+    public static final int MAGIC = 0x48465232; // "HFR2"
+    public static final String EXTENSION = "hfr";
+    public static final int RECORD_INTS = 8;
+    public static final int KEYFRAME_INTERVAL = 60;
+    // Overlap the hamster may keep with a block after collision resolution before it counts as stuck.
+    static final float STUCK_TOLERANCE = 1f;
+
+    static final int FLAG_GAME_OVER = 1 << 8;
+    static final int FLAG_HAMSTER_WIN = 1 << 9;
+    static final int FLAG_ANOMALY = 1 << 10;
+
+    // What findAnomaly returns besides the index of the block the hamster is stuck in.
+    private static final int NO_ANOMALY = -1;
+    private static final int NAN_POSITION = -2;
+
+    private final int capacity;
+    private final int[] records;
+    private final RoundSnapshot[] keyframes;
+    private final int[] keyframeTicks;
+    private final byte[] dumpBuffer;
+
+    private int tick;
+    private boolean anomalous;
+    private String lastAnomaly;
+
+    public FlightRecorder(int seconds, int ticksPerSecond) {
+        capacity = seconds * ticksPerSecond;
+        records = new int[capacity * RECORD_INTS];
+        int keyframeCount = capacity / KEYFRAME_INTERVAL + 1;
+        keyframes = new RoundSnapshot[keyframeCount];
+        keyframeTicks = new int[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            keyframes[i] = new RoundSnapshot();
+            keyframeTicks[i] = -1;
+        }
+        // Sized up front, so a dump from a failing game doesn't depend on allocating memory.
+        dumpBuffer = new byte[maxDumpSize()];
+    }
+
+    private int maxDumpSize() {
+        return 4 + 2 + 255 + 8 + 4 + 4 + keyframes.length * (4 + RoundSnapshot.BYTES) + records.length * 4;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    /** Describes the most recent anomaly, or null if there hasn't been one. */
+    public String getLastAnomaly() {
+        return lastAnomaly;
+    }
+
+    /**
+     * Call right before {@code world.update(delta, input)}. The keyframe is taken before the tick runs,
+     * so a replay starts from it and feeds the recorded inputs.
+     */
+    public void beforeUpdate(GameWorld world) {
+        if (tick % KEYFRAME_INTERVAL == 0) {
+            int slot = (tick / KEYFRAME_INTERVAL) % keyframes.length;
+            world.save(keyframes[slot]);
+            keyframeTicks[slot] = tick;
+        }
+    }
+
+    /** As {@link #afterUpdate(GameWorld, float, float, HamsterInput)} when every tick is one drawn frame. */
+    public boolean afterUpdate(GameWorld world, float delta, HamsterInput input) {
+        return afterUpdate(world, delta, delta, input);
+    }
+
+    /**
+     * Records the tick that {@code world} just ran with {@code delta} and {@code input}, and the longest
+     * frame interval drawn since the previous tick. A replay only needs {@code delta}; the frame interval
+     * shows render hitches the fixed tick hides. Returns true when this tick starts an anomaly; it has to
+     * clear up before the next one is reported.
+     */
+    public boolean afterUpdate(GameWorld world, float delta, float frameInterval, HamsterInput input) {
+        int anomaly = findAnomaly(world);
+        int base = (tick % capacity) * RECORD_INTS;
+        int[] records = this.records;
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        records[base] = tick;
+        records[base + 1] = NumberUtils.floatToRawIntBits(delta);
+        records[base + 2] = input.toButtons()
+                | (world.isGameOver() ? FLAG_GAME_OVER : 0)
+                | (world.isHamsterWin() ? FLAG_HAMSTER_WIN : 0)
+                | (anomaly != NO_ANOMALY ? FLAG_ANOMALY : 0);
+        records[base + 3] = NumberUtils.floatToRawIntBits(hamster.x);
+        records[base + 4] = NumberUtils.floatToRawIntBits(hamster.y);
+        records[base + 5] = NumberUtils.floatToRawIntBits(grade.x);
+        records[base + 6] = NumberUtils.floatToRawIntBits(grade.y);
+        records[base + 7] = NumberUtils.floatToRawIntBits(frameInterval);
+        tick++;
+
+        boolean started = anomaly != NO_ANOMALY && !anomalous;
+        anomalous = anomaly != NO_ANOMALY;
+        // Only the first tick of an anomaly builds a message; the ticks it lasts for allocate nothing.
+        if (started) lastAnomaly = describe(world, anomaly);
+        return started;
+    }
+
+    /** Returns {@link #NO_ANOMALY}, {@link #NAN_POSITION} or the index of the block the hamster is inside. */
+    private static int findAnomaly(GameWorld world) {
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        if (Float.isNaN(hamster.x) || Float.isNaN(hamster.y) || Float.isNaN(grade.x) || Float.isNaN(grade.y)) {
+            return NAN_POSITION;
+        }
+        Array<Rectangle> blocks = world.getBlocks();
+        for (int i = 0; i < blocks.size; i++) {
+            Rectangle block = blocks.get(i);
+            float overlapX = Math.min(hamster.x + hamster.width, block.x + block.width) - Math.max(hamster.x, block.x);
+            float overlapY = Math.min(hamster.y + hamster.height, block.y + block.height) - Math.max(hamster.y, block.y);
+            if (overlapX > STUCK_TOLERANCE && overlapY > STUCK_TOLERANCE) {
+                return i;
+            }
+        }
+        return NO_ANOMALY;
+    }
+
+    private static String describe(GameWorld world, int anomaly) {
+        if (anomaly == NAN_POSITION) return "position is NaN";
+        Rectangle block = world.getBlocks().get(anomaly);
+        return "hamster inside block at " + block.x + "," + block.y;
+    }
+
+    /** Writes the recording to {@code file}; never throws, as it usually runs while something else is failing. */
+    public boolean dump(FileHandle file, String reason) {
+        OutputStream out = null;
+        try {
+            int length = encode(reason);
+            out = file.write(false);
+            out.write(dumpBuffer, 0, length);
+            return true;
+        } catch (Exception e) {
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest dumps in {@code directory} until at most {@code keep} are left, so a game that
+     * keeps hitting an anomaly doesn't fill the disk.
+     */
+    public static void deleteOldDumps(FileHandle directory, int keep) {
+        FileHandle[] dumps = directory.list("." + EXTENSION);
+        if (dumps.length <= keep) return;
+        Arrays.sort(dumps, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < dumps.length - keep; i++) {
+            dumps[i].delete();
+        }
+    }
+
+    /** Encodes the recording into an internal buffer and returns its length in bytes. */
+    int encode(String reason) {
+        int count = Math.min(tick, capacity);
+        int oldest = tick - count;
+        int keyframeCount = 0;
+        for (int keyframeTick : keyframeTicks) {
+            if (keyframeTick >= oldest) keyframeCount++;
+        }
+
+        int position = putInt(0, MAGIC);
+        int reasonLength = Math.min(reason.length(), 255);
+        position = putShort(position, reasonLength);
+        for (int i = 0; i < reasonLength; i++) {
+            char c = reason.charAt(i);
+            dumpBuffer[position++] = (byte) (c < 128 ? c : '?');
+        }
+        long now = System.currentTimeMillis();
+        position = putInt(position, (int) (now >>> 32));
+        position = putInt(position, (int) now);
+        position = putInt(position, count);
+        position = putInt(position, keyframeCount);
+        // Keyframes oldest first: walk the ring from the slot after the newest.
+        int newestSlot = (tick - 1) / KEYFRAME_INTERVAL % keyframes.length;
+        for (int i = 1; i <= keyframes.length; i++) {
+            int slot = (newestSlot + i) % keyframes.length;
+            if (keyframeTicks[slot] < oldest) continue;
+            position = putInt(position, keyframeTicks[slot]);
+            int[] data = keyframes[slot].data;
+            for (int value : data) {
+                position = putInt(position, value);
+            }
+        }
+        for (int t = oldest; t < tick; t++) {
+            int base = (t % capacity) * RECORD_INTS;
+            for (int i = 0; i < RECORD_INTS; i++) {
+                position = putInt(position, records[base + i]);
+            }
+        }
+        return position;
+    }
+
+    byte[] getDumpBuffer() {
+        return dumpBuffer;
+    }
+
+    private int putInt(int position, int value) {
+        dumpBuffer[position] = (byte) (value >>> 24);
+        dumpBuffer[position + 1] = (byte) (value >>> 16);
+        dumpBuffer[position + 2] = (byte) (value >>> 8);
+        dumpBuffer[position + 3] = (byte) value;
+        return position + 4;
+    }
+
+    private int putShort(int position, int value) {
+        dumpBuffer[position] = (byte) (value >>> 8);
+        dumpBuffer[position + 1] = (byte) value;
+        return position + 2;
+    }
+}
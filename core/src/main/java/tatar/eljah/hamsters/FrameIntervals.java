@@ -0,0 +1,44 @@
+package tatar.eljah.hamsters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries the render thread's frame intervals to the simulation thread, which owns the round stats
+ * they are counted in. One writer and one reader, without locks or allocation; if the reader falls
+ * {@link #CAPACITY} frames behind, further frames are dropped until it catches up.
+ */
+final class FrameIntervals {
+    static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    private final float[] intervals = new float[CAPACITY];
+    // Running counts; only the writer moves written and only the reader moves read.
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger read = new AtomicInteger();
+
+    /** Render thread: queues one frame interval in seconds. Returns false when the queue is full. */
+    boolean offer(float interval) {
+        int position = written.get();
+        if (position - read.get() == CAPACITY) return false;
+        intervals[position & MASK] = interval;
+        written.set(position + 1);
+        return true;
+    }
+
+    /**
+     * Simulation thread: counts every queued interval as a frame of {@code world}'s round and returns
+     * the longest of them, or 0 when no frame was drawn since the last call.
+     */
+    float drainTo(GameWorld world) {
+        int position = read.get();
+        int end = written.get();
+        float longest = 0f;
+        for (; position != end; position++) {
+            float interval = intervals[position & MASK];
+            world.recordFrame(interval);
+            if (interval > longest) longest = interval;
+        }
+        read.set(position);
+        return longest;
+    }
+}
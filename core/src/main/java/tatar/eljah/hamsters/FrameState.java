@@ -0,0 +1,41 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * What {@link Main} draws for one tick, copied out of the {@link GameWorld} so that rendering never
+ * reads the world while the simulation thread is changing it. Capturing allocates nothing.
+ */
+final class FrameState {
+    final Rectangle hamster = new Rectangle();
+    final Rectangle grade = new Rectangle();
+    final float[] blockX = new float[GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT];
+    final float[] blockY = new float[GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT];
+    int blockCount;
+    int hamsterScore;
+    int gradeScore;
+    boolean gameOver;
+    boolean hamsterWin;
+    float gameOverTimeLeft;
+    /** When the input this tick was the first to see arrived, or 0; see {@link InputLatency}. */
+    long inputNanos;
+
+    void capture(GameWorld world, long inputNanos) {
+        this.inputNanos = inputNanos;
+        hamster.set(world.getHamster());
+        grade.set(world.getGrade());
+        Array<Rectangle> blocks = world.getBlocks();
+        blockCount = blocks.size;
+        for (int i = 0; i < blockCount; i++) {
+            Rectangle block = blocks.get(i);
+            blockX[i] = block.x;
+            blockY[i] = block.y;
+        }
+        hamsterScore = world.getHamsterScore();
+        gradeScore = world.getGradeScore();
+        gameOver = world.isGameOver();
+        hamsterWin = world.isHamsterWin();
+        gameOverTimeLeft = gameOver ? world.getGameOverTimeLeft() : 0f;
+    }
+}
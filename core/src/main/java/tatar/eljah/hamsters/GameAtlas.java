@@ -0,0 +1,82 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.utils.Disposable;
+import tatar.eljah.hamsters.trace.Span;
+import tatar.eljah.hamsters.trace.Trace;
+
+/**
+ * The background, the sprites and the default font packed into one texture, so a gameplay frame is
+ * a single batch flush. The decoded pixels are kept and the texture is managed from them: when the
+ * GL context is lost, libGDX uploads the pixmap again instead of decoding every PNG.
+ */
+public final class GameAtlas implements Disposable {
+    static final int SIZE = 1024;
+    /** The font {@code new BitmapFont()} uses; its page is copied in below the background. */
+    static final String FONT = "com/badlogic/gdx/utils/lsans-15";
+
+    public final TextureRegion background;
+    public final TextureRegion hamster;
+    public final TextureRegion grade;
+    public final TextureRegion block;
+    public final BitmapFont font;
+    private final Pixmap pixels;
+    private final Texture texture;
+
+    public GameAtlas() {
+        pixels = new Pixmap(SIZE, SIZE, Pixmap.Format.RGBA8888);
+        pixels.setBlending(Pixmap.Blending.None);
+        // Background in the top left, the 64 px sprites in a column to its right, the font page below it.
+        copy(Gdx.files.internal("liner.png"), 0, 0);
+        copy(Gdx.files.internal("hamster.png"), GameWorld.WORLD_WIDTH, 0);
+        copy(Gdx.files.internal("grade.png"), GameWorld.WORLD_WIDTH, GameWorld.CELL_SIZE);
+        copy(Gdx.files.internal("block.png"), GameWorld.WORLD_WIDTH, 2 * GameWorld.CELL_SIZE);
+        Pixmap fontPage = decode(Gdx.files.classpath(FONT + ".png"));
+        int fontWidth = fontPage.getWidth();
+        int fontHeight = fontPage.getHeight();
+        place(fontPage, 0, GameWorld.WORLD_HEIGHT);
+
+        texture = new Texture(new PixmapTextureData(pixels, null, false, false, true));
+        background = new TextureRegion(texture, 0, 0, GameWorld.WORLD_WIDTH, GameWorld.WORLD_HEIGHT);
+        hamster = sprite(0);
+        grade = sprite(1);
+        block = sprite(2);
+        font = new BitmapFont(Gdx.files.classpath(FONT + ".fnt"),
+                new TextureRegion(texture, 0, GameWorld.WORLD_HEIGHT, fontWidth, fontHeight), false);
+    }
+
+    private void copy(FileHandle file, int x, int y) {
+        place(decode(file), x, y);
+    }
+
+    private static Pixmap decode(FileHandle file) {
+        Span load = Trace.events.assetLoad(file.path());
+        Pixmap image = new Pixmap(file);
+        load.finish();
+        return image;
+    }
+
+    /** Draws {@code image} into the atlas with its top left corner at {@code x, y}, then disposes it. */
+    private void place(Pixmap image, int x, int y) {
+        pixels.drawPixmap(image, x, y);
+        image.dispose();
+    }
+
+    private TextureRegion sprite(int row) {
+        return new TextureRegion(texture, GameWorld.WORLD_WIDTH, row * GameWorld.CELL_SIZE,
+                GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+    }
+
+    @Override
+    public void dispose() {
+        font.dispose();
+        texture.dispose();
+        pixels.dispose();
+    }
+}
@@ -0,0 +1,681 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.TimeUtils;
+import tatar.eljah.hamsters.levels.Difficulty;
+import tatar.eljah.hamsters.levels.LevelPack;
+import tatar.eljah.hamsters.levels.LevelRecord;
+import tatar.eljah.hamsters.metrics.GameMetrics;
+import tatar.eljah.hamsters.trace.RoundSpan;
+import tatar.eljah.hamsters.trace.Trace;
+
+/**
+ * The hamster-vs-grade rules without any rendering or input polling, so they can run
+ * under a GL application as well as in the headless simulator. A world owns one
+ * {@link RoundState} that is reset in place, so moving between rounds allocates nothing
+ * apart from the scene transition log line. Layouts are generated randomly, or looked up in a
+ * {@link LevelPack} when one is set.
+ */
+public class GameWorld {
+    public static final int WORLD_WIDTH = 800;
+    public static final int WORLD_HEIGHT = 600;
+    public static final int CELL_SIZE = 64;
+    public static final int GRID_WIDTH = WORLD_WIDTH / CELL_SIZE;
+    public static final int GRID_HEIGHT = WORLD_HEIGHT / CELL_SIZE;
+
+    public static final float HAMSTER_SPEED = 200f;
+    static final float GRADE_SPEED = 100f;
+    static final float GAME_OVER_INPUT_DELAY = 0.15f;
+    // Fallback delay that moves the game to the next scene even if the player
+    // doesn't provide any input (useful for desktop builds without touch).
+    static final float GAME_OVER_AUTO_RESET_DELAY = 1.5f;
+    static final float AUTO_WIN_DELAY = 0.75f;
+    // With a player steering the grade there is no auto-win; the grade wins by staying free this long.
+    static final float GRADE_SURVIVAL_TIME = 30f;
+    static final String TAG = "HamstersGame";
+    static final int BLOCK_COUNT = 10;
+    // The hamster starts in the middle of the arena, which is not aligned to the grid.
+    public static final int SPAWN_X = WORLD_WIDTH / 2 - CELL_SIZE / 2;
+    public static final int SPAWN_Y = WORLD_HEIGHT / 2 - CELL_SIZE / 2;
+    // The cells the spawn rectangle overlaps; generated rounds keep all of them free.
+    static final int SPAWN_CELL_MIN_X = SPAWN_X / CELL_SIZE;
+    static final int SPAWN_CELL_MAX_X = (SPAWN_X + CELL_SIZE - 1) / CELL_SIZE;
+    static final int SPAWN_CELL_MIN_Y = SPAWN_Y / CELL_SIZE;
+    static final int SPAWN_CELL_MAX_Y = (SPAWN_Y + CELL_SIZE - 1) / CELL_SIZE;
+    // Random picks before pickBlockCell falls back to scanning every cell.
+    private static final int MAX_BLOCK_ATTEMPTS = 100;
+    // Leaves room for the hamster's spawn cells, the grade and the cell above it.
+    static final int MAX_BLOCK_COUNT = GRID_WIDTH * GRID_HEIGHT
+            - (SPAWN_CELL_MAX_X - SPAWN_CELL_MIN_X + 1) * (SPAWN_CELL_MAX_Y - SPAWN_CELL_MIN_Y + 1) - 2;
+    private static final Scene[] SCENES = Scene.values();
+
+    private final RoundState round = new RoundState();
+    private final RandomXS128 random;
+    private final Rectangle intersection = new Rectangle();
+    // Breadth-first search scratch space, indexed by x * GRID_HEIGHT + y.
+    private final boolean[] visited = new boolean[GRID_WIDTH * GRID_HEIGHT];
+    private final int[] queue = new int[GRID_WIDTH * GRID_HEIGHT];
+    private final StringBuilder logBuilder = new StringBuilder();
+    private final CellRing.Occupancy freeCells = this::isFree;
+
+    private int blockCount = BLOCK_COUNT;
+    private LevelPack levelPack;
+    private Difficulty levelBand;
+    private final LevelRecord levelRecord = new LevelRecord();
+    private boolean sceneLogging = true;
+    private FixedPointMotion fixedPoint;
+    private final RoundStats stats = new RoundStats();
+    private RoundListener roundListener = RoundListener.NONE;
+    private boolean ticksAreFrames = true;
+    private boolean replaying;
+
+    private int hamsterScore;
+    private int gradeScore;
+    private Scene currentScene;
+
+    public GameWorld() {
+        this(MathUtils.random.nextLong());
+    }
+
+    /** Creates a world whose rounds are generated from {@code seed}, so the sequence of layouts is repeatable. */
+    public GameWorld(long seed) {
+        random = new RandomXS128(seed);
+    }
+
+    public Rectangle getHamster() { return round.hamster; }
+    public Rectangle getGrade() { return round.grade; }
+    public Array<Rectangle> getBlocks() { return round.blocks; }
+    public boolean[][] getGrid() { return round.grid; }
+    public Vector2 getGradeDirection() { return round.gradeDirection; }
+    public boolean isGameOver() { return round.gameOver; }
+    public boolean isHamsterWin() { return round.hamsterWin; }
+    public int getHamsterScore() { return hamsterScore; }
+    public int getGradeScore() { return gradeScore; }
+    public Scene getCurrentScene() { return currentScene; }
+    /** The seed the current round's layout was generated from. */
+    public long getRoundSeed() { return round.seed; }
+    RoundState getRound() { return round; }
+
+    /** Sets how many blocks later generated rounds get; level pack rounds keep their own. */
+    public void setBlockCount(int count) {
+        if (count < 0 || count > MAX_BLOCK_COUNT) {
+            throw new IllegalArgumentException("Block count must be between 0 and " + MAX_BLOCK_COUNT + ": " + count);
+        }
+        blockCount = count;
+    }
+
+    /**
+     * Makes later rounds come from {@code pack} instead of being generated, picking a random record
+     * from {@code band}, or from the whole pack when {@code band} is null or empty.
+     */
+    public void setLevelPack(LevelPack pack, Difficulty band) {
+        levelPack = pack;
+        levelBand = band;
+    }
+
+    /**
+     * By default every update counts as one frame of the round's {@link RoundStats}. A caller that doesn't
+     * draw one frame per tick, like {@link Main} with a simulation thread, turns that off and reports the
+     * frames it draws to {@link #recordFrame(float)} instead.
+     */
+    public void setTicksAreFrames(boolean ticksAreFrames) {
+        this.ticksAreFrames = ticksAreFrames;
+    }
+
+    /** Counts a frame that took {@code interval} seconds towards the current round's frame times. */
+    public void recordFrame(float interval) {
+        if (!round.gameOver) stats.frame(interval);
+    }
+
+    /** Receives the stats of every round that ends; {@link RoundListener#NONE} by default. */
+    public void setRoundListener(RoundListener listener) {
+        roundListener = listener == null ? RoundListener.NONE : listener;
+    }
+
+    /**
+     * While set, updates only change the state: round ends, scene changes and frames are not reported,
+     * logged or counted again. {@link RollbackSession} sets it while it runs ticks a second time.
+     */
+    void setReplaying(boolean replaying) {
+        this.replaying = replaying;
+    }
+
+    /** Turns the scene transition log lines off, for simulations that run many worlds at once. */
+    public void setSceneLogging(boolean enabled) {
+        sceneLogging = enabled;
+    }
+
+    /**
+     * Switches movement, collisions and timers to integer arithmetic with whole ticks of
+     * {@code 1/60} s, which gives bit-identical rounds on every backend for lockstep play and replays;
+     * the {@code delta} passed to {@link #update} is then ignored. A round in progress carries on
+     * with its positions rounded to the fixed-point grid.
+     */
+    public void setFixedPoint(boolean enabled) {
+        fixedPoint = enabled ? new FixedPointMotion() : null;
+        if (fixedPoint != null && currentScene != null) fixedPoint.load(round);
+    }
+
+    public boolean isFixedPoint() {
+        return fixedPoint != null;
+    }
+
+    /**
+     * Hash of the integer state in fixed-point mode, which must come out the same on every platform
+     * after the same seed and inputs; in float mode it is only meaningful on one JVM.
+     */
+    public int stateHash() {
+        int hash = 31 * (31 * hamsterScore + gradeScore) + (int) (round.seed ^ (round.seed >>> 32));
+        hash = 31 * hash + (round.gameOver ? 1 : 0);
+        if (fixedPoint != null) return fixedPoint.hash(hash);
+        hash = 31 * hash + NumberUtils.floatToRawIntBits(round.hamster.x);
+        hash = 31 * hash + NumberUtils.floatToRawIntBits(round.hamster.y);
+        hash = 31 * hash + NumberUtils.floatToRawIntBits(round.grade.x);
+        return 31 * hash + NumberUtils.floatToRawIntBits(round.grade.y);
+    }
+
+    /** Seconds until the game over scene resets on its own; zero during gameplay. */
+    public float getGameOverTimeLeft() {
+        return round.gameOver ? Math.max(0f, GAME_OVER_AUTO_RESET_DELAY - round.gameOverElapsed) : 0f;
+    }
+
+    public void reset() {
+        reset(currentScene == null ? "initial startup" : "restart");
+    }
+
+    public void reset(String reason) {
+        if (replaying) {
+            // The first run of this tick already reported the round; only rebuild the state.
+            generateRound();
+            if (fixedPoint != null) fixedPoint.startRound(round, random);
+            enterScene(Scene.GAMEPLAY, reason);
+            return;
+        }
+        long start = TimeUtils.nanoTime();
+        // A restart or abort in the middle of a round still ends it, just without a winner.
+        if (currentScene == Scene.GAMEPLAY) endRound(false, true, reason);
+        RoundSpan span = Trace.events.roundGeneration();
+        generateRound();
+        stats.start(round.seed, reason);
+        if (fixedPoint != null) fixedPoint.startRound(round, random);
+        span.finish(round.seed, reason);
+        enterScene(Scene.GAMEPLAY, reason);
+        GameMetrics.rounds.increment();
+        GameMetrics.resetTime.recordNanos(TimeUtils.nanoTime() - start);
+    }
+
+    private void generateRound() {
+        round.clear();
+        round.seed = random.nextLong();
+        random.setSeed(round.seed);
+
+        if (levelPack != null && levelPack.size() > 0) {
+            int index;
+            if (levelBand != null && levelPack.bandSize(levelBand) > 0) {
+                index = levelPack.index(levelBand, random.nextInt(levelPack.bandSize(levelBand)));
+            } else {
+                index = random.nextInt(levelPack.size());
+            }
+            levelPack.read(index, levelRecord);
+            applyLevel(levelRecord);
+            return;
+        }
+
+        Rectangle hamster = round.hamster;
+        boolean[][] grid = round.grid;
+        hamster.set(SPAWN_X, SPAWN_Y, CELL_SIZE, CELL_SIZE);
+
+        // The grade's cell is picked first and counts as blocked while the blocks go down, and no block
+        // may cut the free cells in two. Every free cell, including the one above the grade, then stays
+        // reachable from the hamster with the grade in the way, so the first layout is always valid.
+        // The spawn isn't aligned to the grid, so every cell it overlaps stays free of both.
+        int gx;
+        int gy;
+        do {
+            gx = random.nextInt(GRID_WIDTH);
+            gy = random.nextInt(GRID_HEIGHT - 1); // ensure space above
+        } while (isSpawnCell(gx, gy));
+        grid[gx][gy] = true;
+        for (int i = 0; i < blockCount; i++) {
+            int cell = pickBlockCell(gx, gy + 1);
+            if (cell < 0) break;
+            round.addBlock(cell / GRID_HEIGHT, cell % GRID_HEIGHT);
+        }
+        grid[gx][gy] = false;
+        round.grade.set(gx * (float) CELL_SIZE, gy * (float) CELL_SIZE, CELL_SIZE, CELL_SIZE);
+        randomizeGradeDirection();
+    }
+
+    /**
+     * Picks a random free cell that can be blocked, other than the spawn cells and the one above the
+     * grade, as {@code x * GRID_HEIGHT + y}. Returns -1 when the layout is so full that every free cell
+     * is needed to connect the rest; the round then gets fewer blocks than asked for.
+     */
+    private int pickBlockCell(int ax, int ay) {
+        for (int attempt = 0; attempt < MAX_BLOCK_ATTEMPTS; attempt++) {
+            int x = random.nextInt(GRID_WIDTH);
+            int y = random.nextInt(GRID_HEIGHT);
+            if (canPlaceBlock(x, y, ax, ay)) return x * GRID_HEIGHT + y;
+        }
+        int cells = GRID_WIDTH * GRID_HEIGHT;
+        int offset = random.nextInt(cells);
+        for (int i = 0; i < cells; i++) {
+            int cell = (offset + i) % cells;
+            if (canPlaceBlock(cell / GRID_HEIGHT, cell % GRID_HEIGHT, ax, ay)) return cell;
+        }
+        return -1;
+    }
+
+    private boolean canPlaceBlock(int x, int y, int ax, int ay) {
+        if (round.grid[x][y] || isSpawnCell(x, y) || (x == ax && y == ay)) return false;
+        return canBlock(x, y);
+    }
+
+    /** Whether the hamster's spawn rectangle overlaps cell (x, y). */
+    static boolean isSpawnCell(int x, int y) {
+        return x >= SPAWN_CELL_MIN_X && x <= SPAWN_CELL_MAX_X && y >= SPAWN_CELL_MIN_Y && y <= SPAWN_CELL_MAX_Y;
+    }
+
+    private void applyLevel(LevelRecord level) {
+        for (int cell = 0; cell < GRID_WIDTH * GRID_HEIGHT; cell++) {
+            if (level.isBlocked(cell)) {
+                round.addBlock(LevelRecord.cellX(cell), LevelRecord.cellY(cell));
+            }
+        }
+        if (level.hamsterCell == LevelRecord.cell(SPAWN_X / CELL_SIZE, SPAWN_Y / CELL_SIZE)) {
+            round.hamster.set(SPAWN_X, SPAWN_Y, CELL_SIZE, CELL_SIZE);
+        } else {
+            round.hamster.set(LevelRecord.cellX(level.hamsterCell) * (float) CELL_SIZE,
+                    LevelRecord.cellY(level.hamsterCell) * (float) CELL_SIZE, CELL_SIZE, CELL_SIZE);
+        }
+        round.grade.set(LevelRecord.cellX(level.gradeCell) * (float) CELL_SIZE,
+                LevelRecord.cellY(level.gradeCell) * (float) CELL_SIZE, CELL_SIZE, CELL_SIZE);
+        randomizeGradeDirection();
+    }
+
+    private void randomizeGradeDirection() {
+        do {
+            round.gradeDirection.set(random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f);
+        } while (round.gradeDirection.isZero());
+        round.gradeDirection.nor();
+    }
+
+    /**
+     * Whether the free cell (x, y) can be blocked without splitting the free cells, given that they
+     * are connected now. Usually settled by looking at the eight cells around it: if its free
+     * orthogonal neighbours are joined through that ring, any path through the cell can go around
+     * it. Only when the ring is split does a search check whether they are joined further away.
+     */
+    private boolean canBlock(int x, int y) {
+        if (CellRing.neighbourRuns(freeCells, x, y) <= 1) return true;
+
+        boolean[][] grid = round.grid;
+        grid[x][y] = true;
+        int fromX = -1;
+        int fromY = -1;
+        boolean connected = true;
+        for (int i = 0; i < 8 && connected; i += 2) {
+            int toX = x + CellRing.X[i];
+            int toY = y + CellRing.Y[i];
+            if (!isFree(toX, toY)) continue;
+            if (fromX < 0) {
+                fromX = toX;
+                fromY = toY;
+            } else {
+                connected = isReachable(fromX, fromY, toX, toY);
+            }
+        }
+        grid[x][y] = false;
+        return connected;
+    }
+
+    private boolean isFree(int x, int y) {
+        return x >= 0 && y >= 0 && x < GRID_WIDTH && y < GRID_HEIGHT && !round.grid[x][y];
+    }
+
+    private boolean isReachable(int startX, int startY, int targetX, int targetY) {
+        if (round.grid[targetX][targetY]) return false;
+        GameMetrics.bfsCalls.increment();
+        java.util.Arrays.fill(visited, false);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startX * GRID_HEIGHT + startY;
+        visited[startX * GRID_HEIGHT + startY] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / GRID_HEIGHT;
+            int y = cell % GRID_HEIGHT;
+            if (x == targetX && y == targetY) return true;
+            tail = visit(x + 1, y, tail);
+            tail = visit(x - 1, y, tail);
+            tail = visit(x, y + 1, tail);
+            tail = visit(x, y - 1, tail);
+        }
+        return false;
+    }
+
+    private int visit(int x, int y, int tail) {
+        if (x < 0 || y < 0 || x >= GRID_WIDTH || y >= GRID_HEIGHT || round.grid[x][y]) return tail;
+        int cell = x * GRID_HEIGHT + y;
+        if (visited[cell]) return tail;
+        visited[cell] = true;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    /** Copies the whole world state, including the random generator, into {@code out}. */
+    public void save(RoundSnapshot out) {
+        RoundState round = this.round;
+        int[] data = out.data;
+        putRectangle(data, RoundSnapshot.HAMSTER, round.hamster);
+        putRectangle(data, RoundSnapshot.GRADE, round.grade);
+        data[RoundSnapshot.GRADE_DIRECTION] = NumberUtils.floatToRawIntBits(round.gradeDirection.x);
+        data[RoundSnapshot.GRADE_DIRECTION + 1] = NumberUtils.floatToRawIntBits(round.gradeDirection.y);
+        data[RoundSnapshot.FLAGS] = (round.gameOver ? RoundSnapshot.FLAG_GAME_OVER : 0)
+                | (round.hamsterWin ? RoundSnapshot.FLAG_HAMSTER_WIN : 0)
+                | (round.autoWinTriggered ? RoundSnapshot.FLAG_AUTO_WIN_TRIGGERED : 0)
+                | (round.blocks.size > 0 ? RoundSnapshot.FLAG_BLOCKS_PRESENT : 0)
+                | (currentScene == null ? 0 : currentScene.ordinal() + 1) << RoundSnapshot.SCENE_SHIFT;
+        data[RoundSnapshot.GAME_OVER_ELAPSED] = NumberUtils.floatToRawIntBits(round.gameOverElapsed);
+        data[RoundSnapshot.AUTO_WIN_TIMER] = NumberUtils.floatToRawIntBits(round.autoWinTimer);
+        putLong(data, RoundSnapshot.ROUND_SEED, round.seed);
+        data[RoundSnapshot.HAMSTER_SCORE] = hamsterScore;
+        data[RoundSnapshot.GRADE_SCORE] = gradeScore;
+        putLong(data, RoundSnapshot.RANDOM_STATE, random.getState(0));
+        putLong(data, RoundSnapshot.RANDOM_STATE + 2, random.getState(1));
+        int count = round.blockCellCount;
+        data[RoundSnapshot.BLOCK_COUNT] = count;
+        int[] cells = round.blockCells;
+        for (int i = 0; i < count; i += 4) {
+            int packed = cells[i];
+            if (i + 1 < count) packed |= cells[i + 1] << 8;
+            if (i + 2 < count) packed |= cells[i + 2] << 16;
+            if (i + 3 < count) packed |= cells[i + 3] << 24;
+            data[RoundSnapshot.BLOCK_CELLS + (i >> 2)] = packed;
+        }
+        // Clear what an earlier round with more blocks left behind, so equal states compare equal.
+        for (int i = RoundSnapshot.BLOCK_CELLS + ((count + 3) >> 2); i < RoundSnapshot.SIZE; i++) {
+            data[i] = 0;
+        }
+    }
+
+    /**
+     * Continues a round saved by an earlier run of the game: restores {@code snapshot} and starts the
+     * round's {@link RoundStats} over with {@code reason}, as the frames before the save weren't kept.
+     */
+    public void resume(RoundSnapshot snapshot, String reason) {
+        restore(snapshot);
+        stats.start(round.seed, reason);
+    }
+
+    /** Puts the world back in the state {@code snapshot} was taken in; scene changes are not logged. */
+    public void restore(RoundSnapshot snapshot) {
+        RoundState round = this.round;
+        int[] data = snapshot.data;
+        getRectangle(data, RoundSnapshot.HAMSTER, round.hamster);
+        getRectangle(data, RoundSnapshot.GRADE, round.grade);
+        round.gradeDirection.set(NumberUtils.intBitsToFloat(data[RoundSnapshot.GRADE_DIRECTION]),
+                NumberUtils.intBitsToFloat(data[RoundSnapshot.GRADE_DIRECTION + 1]));
+        int flags = data[RoundSnapshot.FLAGS];
+        round.gameOver = (flags & RoundSnapshot.FLAG_GAME_OVER) != 0;
+        round.hamsterWin = (flags & RoundSnapshot.FLAG_HAMSTER_WIN) != 0;
+        round.autoWinTriggered = (flags & RoundSnapshot.FLAG_AUTO_WIN_TRIGGERED) != 0;
+        int scene = flags >>> RoundSnapshot.SCENE_SHIFT;
+        currentScene = scene == 0 ? null : SCENES[scene - 1];
+        round.gameOverElapsed = NumberUtils.intBitsToFloat(data[RoundSnapshot.GAME_OVER_ELAPSED]);
+        round.autoWinTimer = NumberUtils.intBitsToFloat(data[RoundSnapshot.AUTO_WIN_TIMER]);
+        long seed = getLong(data, RoundSnapshot.ROUND_SEED);
+        boolean blocksPresent = (flags & RoundSnapshot.FLAG_BLOCKS_PRESENT) != 0;
+        // Rolling back within the same round, which is the common case, leaves the layout as it is.
+        boolean sameLayout = seed == round.seed && data[RoundSnapshot.BLOCK_COUNT] == round.blockCellCount
+                && blocksPresent == (round.blocks.size > 0);
+        round.seed = seed;
+        hamsterScore = data[RoundSnapshot.HAMSTER_SCORE];
+        gradeScore = data[RoundSnapshot.GRADE_SCORE];
+        random.setState(getLong(data, RoundSnapshot.RANDOM_STATE), getLong(data, RoundSnapshot.RANDOM_STATE + 2));
+        if (sameLayout) {
+            if (fixedPoint != null) fixedPoint.load(round);
+            return;
+        }
+        int count = data[RoundSnapshot.BLOCK_COUNT];
+        for (int i = 0; i < count; i++) {
+            round.blockCells[i] = (data[RoundSnapshot.BLOCK_CELLS + (i >> 2)] >>> ((i & 3) << 3)) & 0xFF;
+        }
+        round.blockCellCount = count;
+        round.rebuildBlocks(blocksPresent);
+        if (fixedPoint != null) fixedPoint.load(round);
+    }
+
+    private static void putRectangle(int[] data, int offset, Rectangle rectangle) {
+        data[offset] = NumberUtils.floatToRawIntBits(rectangle.x);
+        data[offset + 1] = NumberUtils.floatToRawIntBits(rectangle.y);
+        data[offset + 2] = NumberUtils.floatToRawIntBits(rectangle.width);
+        data[offset + 3] = NumberUtils.floatToRawIntBits(rectangle.height);
+    }
+
+    private static void getRectangle(int[] data, int offset, Rectangle rectangle) {
+        rectangle.set(NumberUtils.intBitsToFloat(data[offset]), NumberUtils.intBitsToFloat(data[offset + 1]),
+                NumberUtils.intBitsToFloat(data[offset + 2]), NumberUtils.intBitsToFloat(data[offset + 3]));
+    }
+
+    private static void putLong(int[] data, int offset, long value) {
+        data[offset] = (int) (value >>> 32);
+        data[offset + 1] = (int) value;
+    }
+
+    private static long getLong(int[] data, int offset) {
+        return ((long) data[offset] << 32) | (data[offset + 1] & 0xFFFFFFFFL);
+    }
+
+    /** Advances the round by {@code delta} seconds; handles both the gameplay and the game over scene. */
+    public void update(float delta, HamsterInput input) {
+        update(delta, input, null);
+    }
+
+    /**
+     * As {@link #update(float, HamsterInput)}, with the grade steered by {@code gradeInput} instead of
+     * bouncing around on its own when it is not null. A steered grade wins by evading the hamster for
+     * {@value #GRADE_SURVIVAL_TIME} seconds, and the hamster doesn't auto-win.
+     */
+    public void update(float delta, HamsterInput input, HamsterInput gradeInput) {
+        if (ticksAreFrames && !replaying) recordFrame(delta);
+        if (fixedPoint != null) {
+            updateFixedPoint(input, gradeInput);
+            return;
+        }
+        RoundState round = this.round;
+        if (round.gameOver) {
+            round.gameOverElapsed += delta;
+            boolean allowRestart = round.gameOverElapsed >= GAME_OVER_INPUT_DELAY;
+            boolean restart = input.restart || (gradeInput != null && gradeInput.restart);
+            if ((allowRestart && restart) || round.gameOverElapsed >= GAME_OVER_AUTO_RESET_DELAY) {
+                reset("post-game-over restart");
+            }
+            return;
+        }
+
+        if (!round.autoWinTriggered) {
+            round.autoWinTimer += delta;
+            if (gradeInput == null && round.autoWinTimer >= AUTO_WIN_DELAY) {
+                triggerGameOver(true, "auto-win");
+            } else if (gradeInput != null && round.autoWinTimer >= GRADE_SURVIVAL_TIME) {
+                triggerGameOver(false, "survival");
+            }
+        }
+
+        Rectangle hamster = round.hamster;
+        Rectangle grade = round.grade;
+        Vector2 gradeDirection = round.gradeDirection;
+
+        if (input.left) hamster.x -= HAMSTER_SPEED * delta;
+        if (input.right) hamster.x += HAMSTER_SPEED * delta;
+        if (input.up) hamster.y += HAMSTER_SPEED * delta; // Y increases upwards
+        if (input.down) hamster.y -= HAMSTER_SPEED * delta; // Y decreases downwards
+
+        hamster.x = MathUtils.clamp(hamster.x, 0, WORLD_WIDTH - hamster.width);
+        hamster.y = MathUtils.clamp(hamster.y, 0, WORLD_HEIGHT - hamster.height);
+
+        if (gradeInput != null) {
+            gradeDirection.set(0f, 0f);
+            if (gradeInput.left) gradeDirection.x -= 1f;
+            if (gradeInput.right) gradeDirection.x += 1f;
+            if (gradeInput.up) gradeDirection.y += 1f;
+            if (gradeInput.down) gradeDirection.y -= 1f;
+        }
+        grade.x += gradeDirection.x * GRADE_SPEED * delta;
+        grade.y += gradeDirection.y * GRADE_SPEED * delta;
+
+        if (grade.x < 0 || grade.x > WORLD_WIDTH - CELL_SIZE) gradeDirection.x = -gradeDirection.x;
+        if (grade.y < 0 || grade.y > WORLD_HEIGHT - CELL_SIZE) gradeDirection.y = -gradeDirection.y;
+
+        Array<Rectangle> blocks = round.blocks;
+        for (int i = 0; i < blocks.size; i++) {
+            Rectangle block = blocks.get(i);
+            if (Intersector.intersectRectangles(hamster, block, intersection)) {
+                if (intersection.width < intersection.height) {
+                    if (hamster.x < block.x) {
+                        hamster.x -= intersection.width;
+                    } else {
+                        hamster.x += intersection.width;
+                    }
+                } else {
+                    if (hamster.y < block.y) {
+                        hamster.y -= intersection.height;
+                    } else {
+                        hamster.y += intersection.height;
+                    }
+                }
+            }
+
+            if (Intersector.intersectRectangles(grade, block, intersection)) {
+                if (intersection.width < intersection.height) {
+                    if (grade.x < block.x) {
+                        grade.x -= intersection.width;
+                    } else {
+                        grade.x += intersection.width;
+                    }
+                    gradeDirection.x = -gradeDirection.x;
+                } else {
+                    if (grade.y < block.y) {
+                        grade.y -= intersection.height;
+                    } else {
+                        grade.y += intersection.height;
+                    }
+                    gradeDirection.y = -gradeDirection.y;
+                }
+            }
+        }
+
+        hamster.x = MathUtils.clamp(hamster.x, 0, WORLD_WIDTH - hamster.width);
+        hamster.y = MathUtils.clamp(hamster.y, 0, WORLD_HEIGHT - hamster.height);
+        grade.x = MathUtils.clamp(grade.x, 0, WORLD_WIDTH - grade.width);
+        grade.y = MathUtils.clamp(grade.y, 0, WORLD_HEIGHT - grade.height);
+
+        if (!round.gameOver && hamster.overlaps(grade)) {
+            triggerGameOver(true, "collision");
+        }
+    }
+
+    private void updateFixedPoint(HamsterInput input, HamsterInput gradeInput) {
+        RoundState round = this.round;
+        FixedPointMotion motion = fixedPoint;
+        if (round.gameOver) {
+            motion.gameOverTicks++;
+            round.gameOverElapsed = motion.gameOverTicks * FixedPointMotion.TICK;
+            boolean restart = input.restart || (gradeInput != null && gradeInput.restart);
+            if ((motion.gameOverTicks >= FixedPointMotion.GAME_OVER_INPUT_TICKS && restart)
+                    || motion.gameOverTicks >= FixedPointMotion.GAME_OVER_AUTO_RESET_TICKS) {
+                reset("post-game-over restart");
+            }
+            return;
+        }
+
+        if (!round.autoWinTriggered) {
+            motion.roundTicks++;
+            round.autoWinTimer = motion.roundTicks * FixedPointMotion.TICK;
+            if (gradeInput == null && motion.roundTicks >= FixedPointMotion.AUTO_WIN_TICKS) {
+                triggerGameOver(true, "auto-win");
+            } else if (gradeInput != null && motion.roundTicks >= FixedPointMotion.GRADE_SURVIVAL_TICKS) {
+                triggerGameOver(false, "survival");
+            }
+        }
+
+        motion.move(round, input, gradeInput);
+        if (!round.gameOver && motion.hamsterTouchesGrade()) {
+            triggerGameOver(true, "collision");
+        }
+    }
+
+    void triggerGameOver(boolean hamsterWon, String reason) {
+        if (round.gameOver) {
+            return;
+        }
+        round.gameOver = true;
+        round.hamsterWin = hamsterWon;
+        round.gameOverElapsed = 0f;
+        if (fixedPoint != null) fixedPoint.gameOverTicks = 0;
+        if (hamsterWon) {
+            hamsterScore++;
+            round.removeBlocks();
+        } else {
+            gradeScore++;
+        }
+        round.autoWinTriggered = true;
+        enterScene(Scene.GAME_OVER, hamsterWon ? "hamster victory via " + reason : "grade victory via " + reason);
+        endRound(hamsterWon, false, reason);
+    }
+
+    private void endRound(boolean hamsterWon, boolean aborted, String reason) {
+        if (replaying) return;
+        stats.hamsterWon = hamsterWon;
+        stats.aborted = aborted;
+        stats.endReason = reason;
+        stats.hamsterScore = hamsterScore;
+        stats.gradeScore = gradeScore;
+        roundListener.roundEnded(stats);
+    }
+
+    private void enterScene(Scene next, String reason) {
+        if (currentScene != null && !currentScene.canMoveTo(next)) {
+            throw new IllegalStateException("Cannot move from " + currentScene + " to " + next);
+        }
+        if (!replaying) {
+            if (sceneLogging) {
+                logSceneTransition(currentScene, next, reason);
+            }
+            Trace.events.sceneTransition(currentScene == null ? null : currentScene.name(), next.name(), reason);
+        }
+        currentScene = next;
+    }
+
+    private void logSceneStart(String message) {
+        if (Gdx.app != null) {
+            Gdx.app.log(TAG, message + " on " + Gdx.app.getType());
+        } else {
+            System.out.println(TAG + ": " + message);
+        }
+    }
+
+    private void logSceneTransition(Scene fromScene, Scene toScene, String reason) {
+        StringBuilder builder = logBuilder;
+        builder.setLength(0);
+        if (fromScene == null) {
+            builder.append("Entering ").append(toScene.getLabel());
+        } else if (fromScene == toScene) {
+            builder.append("Staying on ").append(toScene.getLabel());
+        } else {
+            builder.append("Transition ").append(fromScene.getLabel()).append(" -> ").append(toScene.getLabel());
+        }
+        if (reason != null && !reason.isEmpty()) {
+            builder.append(" (reason: ").append(reason).append(")");
+        }
+        logSceneStart(builder.toString());
+    }
+}
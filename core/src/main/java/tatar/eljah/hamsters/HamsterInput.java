@@ -0,0 +1,37 @@
+package tatar.eljah.hamsters;
+
+/** Directional and restart intent for one frame, filled by whatever drives the hamster. */
+public class HamsterInput {
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int RESTART = 1 << 4;
+
+    public boolean left;
+    public boolean right;
+    public boolean up;
+    public boolean down;
+    public boolean restart;
+
+    public void clear() {
+        left = false;
+        right = false;
+        up = false;
+        down = false;
+        restart = false;
+    }
+
+    /** Packs the intent into the {@link #LEFT} ... {@link #RESTART} bits, for recording and sending. */
+    public int toButtons() {
+        return (left ? LEFT : 0) | (right ? RIGHT : 0) | (up ? UP : 0) | (down ? DOWN : 0) | (restart ? RESTART : 0);
+    }
+
+    public void setButtons(int buttons) {
+        left = (buttons & LEFT) != 0;
+        right = (buttons & RIGHT) != 0;
+        up = (buttons & UP) != 0;
+        down = (buttons & DOWN) != 0;
+        restart = (buttons & RESTART) != 0;
+    }
+}
@@ -0,0 +1,151 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerAdapter;
+import com.badlogic.gdx.controllers.ControllerListener;
+import com.badlogic.gdx.utils.TimeUtils;
+import tatar.eljah.hamsters.metrics.GameMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Timestamps keyboard, touch and controller events, and turns the timestamps into input latency
+ * samples: from the first event that changed the hamster's buttons to the end of the first frame
+ * that draws a tick which saw the change. Vsync and the driver still stand between that frame and
+ * the screen, so the samples are a lower bound on input-to-photon latency. Render thread only.
+ */
+class InputLatency extends InputAdapter {
+    /** Samples the percentiles are taken over. */
+    static final int SAMPLES = 256;
+    /** Stick deflection that counts as a direction. */
+    static final float STICK_DEAD_ZONE = 0.5f;
+    // Event times further back than this come from a clock other than TimeUtils.nanoTime().
+    private static final long MAX_EVENT_AGE = 1_000_000_000L;
+
+    private final long[] samples = new long[SAMPLES];
+    private final long[] sorted = new long[SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+    private long firstEventNanos;
+    private boolean controllerButtonPressed;
+    private String summary = "Input latency: no samples";
+
+    private final ControllerListener controllerListener = new ControllerAdapter() {
+        @Override
+        public boolean buttonDown(Controller controller, int buttonCode) {
+            // Controller backends poll and don't report when a button went down; now is the best guess.
+            event(TimeUtils.nanoTime());
+            controllerButtonPressed = true;
+            return false;
+        }
+
+        @Override
+        public boolean buttonUp(Controller controller, int buttonCode) {
+            event(TimeUtils.nanoTime());
+            return false;
+        }
+
+        @Override
+        public boolean axisMoved(Controller controller, int axisCode, float value) {
+            // Stick jitter around the center isn't input.
+            if (Math.abs(value) >= STICK_DEAD_ZONE) event(TimeUtils.nanoTime());
+            return false;
+        }
+    };
+
+    ControllerListener getControllerListener() {
+        return controllerListener;
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        event(eventTime());
+        return false;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        event(eventTime());
+        return false;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        event(eventTime());
+        return false;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        event(eventTime());
+        return false;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        event(eventTime());
+        return false;
+    }
+
+    private static long eventTime() {
+        long now = TimeUtils.nanoTime();
+        long time = Gdx.input.getCurrentEventTime();
+        return time <= 0 || time > now || now - time > MAX_EVENT_AGE ? now : time;
+    }
+
+    void event(long nanos) {
+        if (firstEventNanos == 0) firstEventNanos = nanos;
+    }
+
+    /** The time of the earliest event since the last take or discard, or now when there was none. */
+    long takeEventTime() {
+        long time = firstEventNanos == 0 ? TimeUtils.nanoTime() : firstEventNanos;
+        firstEventNanos = 0;
+        return time;
+    }
+
+    /** Forgets events that didn't change the buttons, so they aren't blamed for a later change. */
+    void discardEvents() {
+        firstEventNanos = 0;
+    }
+
+    /** True once per controller button press, for restarting after game over. */
+    boolean takeControllerButtonPress() {
+        boolean pressed = controllerButtonPressed;
+        controllerButtonPressed = false;
+        return pressed;
+    }
+
+    void record(long latencyNanos) {
+        GameMetrics.inputLatency.recordNanos(latencyNanos);
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % SAMPLES;
+        if (sampleCount < SAMPLES) sampleCount++;
+        System.arraycopy(samples, 0, sorted, 0, sampleCount);
+        Arrays.sort(sorted, 0, sampleCount);
+        summary = "Input latency p50 " + millis(percentileNanos(0.5f)) + " p95 " + millis(percentileNanos(0.95f))
+                + " p99 " + millis(percentileNanos(0.99f)) + " ms (" + sampleCount + ")";
+    }
+
+    /** The {@code fraction} percentile of the last {@link #SAMPLES} samples, in nanoseconds; 0 without samples. */
+    long percentileNanos(float fraction) {
+        if (sampleCount == 0) return 0;
+        // Nearest rank: the smallest sample at or above the fraction of all samples.
+        return sorted[Math.max(0, (int) Math.ceil(fraction * sampleCount) - 1)];
+    }
+
+    int getSampleCount() {
+        return sampleCount;
+    }
+
+    /** One line for the overlay, rebuilt only when a sample arrives. */
+    String getSummary() {
+        return summary;
+    }
+
+    private static String millis(long nanos) {
+        return Long.toString((nanos + 500_000) / 1_000_000);
+    }
+}
@@ -3,193 +3,328 @@ package tatar.eljah.hamsters;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerMapping;
+import com.badlogic.gdx.controllers.Controllers;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Intersector;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import tatar.eljah.hamsters.bot.HamsterBot;
+import tatar.eljah.hamsters.levels.LevelPack;
+import tatar.eljah.hamsters.levels.LevelPackLoader;
+import tatar.eljah.hamsters.metrics.GameMetrics;
+import tatar.eljah.hamsters.trace.Span;
+import tatar.eljah.hamsters.trace.Trace;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Main extends ApplicationAdapter {
+    /** The GWT preloader fetches files with extensions it doesn't know as text, which mangles the pack; .bin is fetched as binary. */
+    static final String LEVEL_PACK = "levels.bin";
+    static final int FLIGHT_RECORDER_SECONDS = 30;
+    // Dumps kept under flight/; older ones are deleted as new ones are written.
+    static final int MAX_FLIGHT_RECORDS = 10;
+
+    /** Where {@link #pause()} saves the round, in local storage, for {@link #create()} to pick up after the process dies. */
+    static final String RESUME_FILE = "resume.sav";
+
     private SpriteBatch batch;
-    private Texture hamsterTexture;
-    private Texture gradeTexture;
-    private Texture blockTexture;
-    private Texture backgroundTexture;
+    private GameAtlas atlas;
     private BitmapFont font;
 
     private OrthographicCamera camera;
 
-    private Rectangle hamster;
-    private Rectangle grade;
-    private Array<Rectangle> blocks;
-
-    private Vector2 gradeDirection;
-    private boolean gameOver;
-    private boolean hamsterWin;
-    private boolean[][] grid;
-    private int hamsterScore;
-    private int gradeScore;
+    private final GameWorld world = new GameWorld();
+    private final HamsterInput input = new HamsterInput();
+    private final FlightRecorder flightRecorder = new FlightRecorder(FLIGHT_RECORDER_SECONDS, 60);
+    private final HamsterBot bot = new HamsterBot(world);
+    private final RoundSnapshot resumeSnapshot = new RoundSnapshot();
+    private final TripleBuffer<FrameState> frames = new TripleBuffer<>(new FrameState(), new FrameState(), new FrameState());
+    private volatile boolean autoPlay;
+    private volatile boolean flightRecordRequested;
+    private final InputLatency inputLatency = new InputLatency();
+    private int lastButtons;
+    private long inputNanos;
+    private boolean showLatency;
+
+    // With a simulation loop the render thread only writes buttons here and reads frames; the rest is the loop's.
+    private SimulationLoop simulationLoop;
+    private final Runnable simulationTick = this::simulationTick;
+    private final AtomicInteger pendingButtons = new AtomicInteger();
+    private final AtomicLong pendingInputNanos = new AtomicLong();
+    // The loop publishes an input's time until the render thread reports a frame with it drawn.
+    private long carriedInputNanos;
+    private final AtomicLong renderedInputNanos = new AtomicLong();
+    private long timedInputNanos;
+    private final FrameIntervals frameIntervals = new FrameIntervals();
+    private final HamsterInput simulationInput = new HamsterInput();
+    private volatile Throwable simulationFailure;
+    private final Object crashLock = new Object();
+    private boolean crashRecorded;
     private OnscreenControlRenderer controlRenderer;
-    private float gameOverElapsed;
-    private static final float GAME_OVER_INPUT_DELAY = 0.15f;
-    // Fallback delay that moves the game to the next scene even if the player
-    // doesn't provide any input (useful for desktop builds without touch).
-    private static final float GAME_OVER_AUTO_RESET_DELAY = 1.5f;
-    private static final float AUTO_WIN_DELAY = 0.75f;
-    private static final String TAG = "HamstersGame";
-
-    private float autoWinTimer;
-    private boolean autoWinTriggered;
-    private String currentScene;
-    private static final String SCENE_GAMEPLAY = "Scene 1 (Gameplay)";
-    private static final String SCENE_GAME_OVER = "Scene 2 (Game Over)";
+    private OnDemandRendering onDemandRendering;
+    private final LevelPackLoader levelPackLoader;
+
+    public Main() {
+        this(LevelPack::load);
+    }
+
+    /** @param levelPackLoader how to open {@code levels.bin} on this platform */
+    public Main(LevelPackLoader levelPackLoader) {
+        this.levelPackLoader = levelPackLoader;
+        // Round stats count the frames render() draws, which a simulation loop doesn't tick in step with.
+        world.setTicksAreFrames(false);
+    }
 
     @Override
     public void create() {
         batch = new SpriteBatch();
-        hamsterTexture = new Texture("hamster.png");
-        gradeTexture = new Texture("grade.png");
-        blockTexture = new Texture("block.png");
-        backgroundTexture = new Texture("liner.png");
-        font = new BitmapFont();
+        atlas = new GameAtlas();
+        font = atlas.font;
 
         camera = new OrthographicCamera();
-        camera.setToOrtho(false, 800, 600);
+        camera.setToOrtho(false, GameWorld.WORLD_WIDTH, GameWorld.WORLD_HEIGHT);
 
         controlRenderer = new OnscreenControlRenderer();
+        onDemandRendering = new OnDemandRendering();
 
-        hamsterScore = 0;
-        gradeScore = 0;
+        FileHandle levelPackFile = Gdx.files.internal(LEVEL_PACK);
+        if (levelPackFile.exists()) {
+            Span load = Trace.events.assetLoad(LEVEL_PACK);
+            world.setLevelPack(levelPackLoader.load(levelPackFile), null);
+            load.finish();
+        }
 
-        resetGameWithReason("initial startup");
+        if (!restoreSavedRound()) {
+            resetGameWithReason("initial startup");
+        }
+        publishFrame(0);
+        Gdx.input.setInputProcessor(inputLatency);
+        Controllers.addListener(inputLatency.getControllerListener());
+        if (simulationLoop != null) simulationLoop.start(simulationTick);
     }
 
-    static final int GRID_WIDTH = 800 / 64;
-    static final int GRID_HEIGHT = 600 / 64;
+    @Override
+    public void resume() {
+        // The live world is authoritative again; a crash from here on mustn't bring back the paused round.
+        deleteResumeFile();
+        if (simulationLoop != null) simulationLoop.start(simulationTick);
+    }
 
-    Rectangle getHamster() { return hamster; }
-    Rectangle getGrade() { return grade; }
-    boolean[][] getGrid() { return grid; }
+    /**
+     * Saves the round, so that Android can kill the backgrounded process without losing it. The
+     * textures need nothing here: the atlas is managed and re-uploads its pixels when the context returns.
+     */
+    @Override
+    public void pause() {
+        if (simulationLoop != null) simulationLoop.stop();
+        FileHandle file = resumeFile();
+        if (file == null) return;
+        world.save(resumeSnapshot);
+        if (!resumeSnapshot.save(file)) {
+            Gdx.app.error(GameWorld.TAG, "Couldn't save the round to " + file.path());
+        }
+    }
+
+    private boolean restoreSavedRound() {
+        FileHandle file = resumeFile();
+        if (file == null || !file.exists()) return false;
+        boolean loaded = resumeSnapshot.load(file);
+        file.delete();
+        if (!loaded) return false;
+        world.resume(resumeSnapshot, "resumed");
+        Gdx.app.log(GameWorld.TAG, "Resumed the round saved in " + file.path());
+        return true;
+    }
+
+    private static FileHandle resumeFile() {
+        return Gdx.files.isLocalStorageAvailable() ? Gdx.files.local(RESUME_FILE) : null;
+    }
+
+    private static void deleteResumeFile() {
+        FileHandle file = resumeFile();
+        if (file != null) file.delete();
+    }
+
+    static final int GRID_WIDTH = GameWorld.GRID_WIDTH;
+    static final int GRID_HEIGHT = GameWorld.GRID_HEIGHT;
+
+    Rectangle getHamster() { return world.getHamster(); }
+    Rectangle getGrade() { return world.getGrade(); }
+    boolean[][] getGrid() { return world.getGrid(); }
+    GameWorld getWorld() { return world; }
 
     void resetGame() {
-        resetGameWithReason(currentScene == null ? "initial startup" : "restart");
+        world.reset();
     }
 
     void resetGameWithReason(String reason) {
-        gameOver = false;
-        hamsterWin = false;
-        gameOverElapsed = 0f;
-        autoWinTimer = 0f;
-        autoWinTriggered = false;
+        world.reset(reason);
+    }
 
-        hamster = new Rectangle(400 - 32, 300 - 32, 64, 64);
+    FlightRecorder getFlightRecorder() { return flightRecorder; }
+    InputLatency getInputLatency() { return inputLatency; }
 
-        blocks = new Array<>();
-        grid = new boolean[GRID_WIDTH][GRID_HEIGHT];
+    /** Receives the stats of every finished round, e.g. to export telemetry. */
+    public void setRoundListener(RoundListener listener) {
+        world.setRoundListener(listener);
+    }
 
-        // generate random blocks
-        for (int i = 0; i < 10; i++) {
-            int gx;
-            int gy;
-            do {
-                gx = MathUtils.random(0, GRID_WIDTH - 1);
-                gy = MathUtils.random(0, GRID_HEIGHT - 1);
-            } while (grid[gx][gy] || (gx == (int)(hamster.x / 64) && gy == (int)(hamster.y / 64)));
+    /** Lets {@link HamsterBot} play the hamster instead of the keyboard or touch controls; F8 toggles it on desktop. */
+    public void setAutoPlay(boolean autoPlay) {
+        this.autoPlay = autoPlay;
+    }
+
+    /**
+     * Moves the simulation off the render thread: the world is then updated at the loop's fixed rate and
+     * {@link #render()} only hands over input and draws the newest finished tick. Call before {@link #create()}.
+     */
+    public void setSimulationLoop(SimulationLoop simulationLoop) {
+        this.simulationLoop = simulationLoop;
+    }
 
-            Rectangle block = new Rectangle(gx * 64f, gy * 64f, 64, 64);
-            blocks.add(block);
-            grid[gx][gy] = true;
+    /**
+     * Saves the flight recorder under {@code flight/} in local storage, keeping the newest
+     * {@value #MAX_FLIGHT_RECORDS} dumps; F9 does this on desktop.
+     */
+    boolean dumpFlightRecord(String reason) {
+        String name = reason.indexOf(':') > 0 ? reason.substring(0, reason.indexOf(':')) : reason;
+        FileHandle directory = Gdx.files.local("flight");
+        FlightRecorder.deleteOldDumps(directory, MAX_FLIGHT_RECORDS - 1);
+        FileHandle file = directory.child(name + "-" + TimeUtils.millis() + "." + FlightRecorder.EXTENSION);
+        boolean saved = flightRecorder.dump(file, reason);
+        Gdx.app.error(GameWorld.TAG, saved ? "Flight record (" + reason + ") saved to " + file.path()
+                : "Couldn't save flight record (" + reason + ")");
+        return saved;
+    }
+
+    /**
+     * Dumps the flight record for a crash, once however many threads report it. {@link #render()} calls it,
+     * and {@link CrashHandler} for failures anywhere else. The simulation loop is stopped first, as its
+     * ticks write the recording; callers that lose the race wait until the dump is written.
+     */
+    void recordCrash(Throwable e) {
+        if (simulationLoop != null) simulationLoop.stop();
+        synchronized (crashLock) {
+            if (crashRecorded) return;
+            crashRecorded = true;
+            dumpFlightRecord("crash: " + e);
         }
+    }
 
-        int hx = (int) (hamster.x / 64);
-        int hy = (int) (hamster.y / 64);
-        boolean placed = false;
-        for (int attempt = 0; attempt < 1000 && !placed; attempt++) {
-            int gx = MathUtils.random(0, GRID_WIDTH - 1);
-            int gy = MathUtils.random(0, GRID_HEIGHT - 2); // ensure space above
-            if (grid[gx][gy] || grid[gx][gy + 1]) continue;
-            if (gx == hx && gy == hy) continue;
-
-            grid[gx][gy] = true;
-            boolean canReachAbove = isReachable(hx, hy, gx, gy + 1);
-            grid[gx][gy] = false;
-
-            if (canReachAbove && isReachable(hx, hy, gx, gy)) {
-                grade = new Rectangle(gx * 64f, gy * 64f, 64, 64);
-                placed = true;
-            }
+    @Override
+    public void render() {
+        try {
+            renderFrame();
+        } catch (RuntimeException | Error e) {
+            recordCrash(e);
+            throw e;
         }
-        if (!placed) {
-            resetGameWithReason("grade spawn retry");
-            return;
+    }
+
+    private void renderFrame() {
+        Throwable failure = simulationFailure;
+        if (failure != null) throw new GdxRuntimeException("The simulation thread failed", failure);
+        pollInput();
+        float delta = Gdx.graphics.getDeltaTime();
+        GameMetrics.frameTime.recordNanos((long) (delta * 1e9f));
+        if (simulationLoop == null) {
+            world.recordFrame(delta);
+            update(delta, input, inputNanos, delta);
+        } else {
+            frameIntervals.offer(delta);
+            offerButtons(input.toButtons());
+            // Buttons first: a tick that takes the time is then sure to see the buttons it belongs to.
+            if (inputNanos != 0) pendingInputNanos.compareAndSet(0, inputNanos);
+        }
+        boolean fresh = frames.update();
+
+        Span render = Trace.events.frameRender();
+        FrameState frame = frames.front();
+        draw(frame);
+        render.finish();
+        // Ticks keep publishing an input's time until a frame carrying it was drawn, so time it only once.
+        if (fresh && frame.inputNanos != 0 && frame.inputNanos != timedInputNanos) {
+            timedInputNanos = frame.inputNanos;
+            inputLatency.record(TimeUtils.nanoTime() - frame.inputNanos);
+            renderedInputNanos.set(frame.inputNanos);
         }
+    }
 
-        do {
-            gradeDirection = new Vector2(MathUtils.random(-1f, 1f), MathUtils.random(-1f, 1f));
-        } while (gradeDirection.isZero());
-        gradeDirection.nor();
+    /** One tick of the simulation loop: takes the buttons the render thread left, updates and publishes. */
+    private void simulationTick() {
+        try {
+            // Two ticks can publish before the render thread takes a frame, and the second would drop the
+            // input time of the first, so the earliest undrawn one goes on every frame until it is drawn.
+            // A later input time waits in pendingInputNanos until then.
+            if (carriedInputNanos != 0 && renderedInputNanos.get() == carriedInputNanos) carriedInputNanos = 0;
+            if (carriedInputNanos == 0) carriedInputNanos = pendingInputNanos.getAndSet(0);
+            int buttons;
+            do {
+                buttons = pendingButtons.get();
+            } while (!pendingButtons.compareAndSet(buttons, buttons & ~HamsterInput.RESTART));
+            simulationInput.setButtons(buttons);
+            float frameInterval = frameIntervals.drainTo(world);
+            update(1f / SimulationLoop.TICKS_PER_SECOND, simulationInput, carriedInputNanos, frameInterval);
+        } catch (RuntimeException | Error e) {
+            simulationFailure = e;
+            throw e;
+        }
+    }
 
-        logSceneTransition(currentScene, SCENE_GAMEPLAY, reason);
-        currentScene = SCENE_GAMEPLAY;
+    /** Replaces the held directions, but keeps a restart press until a tick has taken it. */
+    private void offerButtons(int buttons) {
+        int pending;
+        do {
+            pending = pendingButtons.get();
+        } while (!pendingButtons.compareAndSet(pending, buttons | (pending & HamsterInput.RESTART)));
     }
 
-    private boolean isReachable(int startX, int startY, int targetX, int targetY) {
-        if (grid[targetX][targetY]) return false;
-        boolean[][] visited = new boolean[GRID_WIDTH][GRID_HEIGHT];
-        java.util.ArrayDeque<int[]> queue = new java.util.ArrayDeque<>();
-        queue.add(new int[]{startX, startY});
-        visited[startX][startY] = true;
-        int[][] dirs = {{1,0},{-1,0},{0,1},{0,-1}};
-        while (!queue.isEmpty()) {
-            int[] p = queue.poll();
-            if (p[0] == targetX && p[1] == targetY) return true;
-            for (int[] d : dirs) {
-                int nx = p[0] + d[0];
-                int ny = p[1] + d[1];
-                if (nx >= 0 && ny >= 0 && nx < GRID_WIDTH && ny < GRID_HEIGHT && !grid[nx][ny] && !visited[nx][ny]) {
-                    visited[nx][ny] = true;
-                    queue.add(new int[]{nx, ny});
-                }
-            }
+    private void update(float delta, HamsterInput input, long inputNanos, float frameInterval) {
+        Span update = Trace.events.frameUpdate();
+        if (autoPlay) bot.steer(input);
+        if (flightRecordRequested) {
+            flightRecordRequested = false;
+            dumpFlightRecord("requested");
         }
-        return false;
+        flightRecorder.beforeUpdate(world);
+        world.update(delta, input);
+        if (flightRecorder.afterUpdate(world, delta, frameInterval, input)) {
+            dumpFlightRecord("anomaly: " + flightRecorder.getLastAnomaly());
+        }
+        publishFrame(inputNanos);
+        update.finish();
     }
 
+    private void publishFrame(long inputNanos) {
+        frames.back().capture(world, inputNanos);
+        frames.publish();
+    }
 
-    @Override
-    public void render() {
-        if (gameOver) {
-            gameOverElapsed += Gdx.graphics.getDeltaTime();
+    private void draw(FrameState frame) {
+        if (frame.gameOver) {
             Gdx.gl.glClearColor(1, 0, 0, 1);
             Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
             batch.begin();
-            font.draw(batch, "Hamster: " + hamsterScore, 10, 590);
-            font.draw(batch, "Grade: " + gradeScore, 10, 560);
-            if (hamsterWin) {
-                batch.draw(hamsterTexture, 350, 250, 100, 100);
+            font.draw(batch, "Hamster: " + frame.hamsterScore, 10, 590);
+            font.draw(batch, "Grade: " + frame.gradeScore, 10, 560);
+            if (frame.hamsterWin) {
+                batch.draw(atlas.hamster, 350, 250, 100, 100);
             } else {
-                batch.draw(gradeTexture, 350, 250, 100, 100);
+                batch.draw(atlas.grade, 350, 250, 100, 100);
             }
             batch.end();
-            boolean allowRestart = gameOverElapsed >= GAME_OVER_INPUT_DELAY;
-            if ((allowRestart && shouldRestartGame()) || gameOverElapsed >= GAME_OVER_AUTO_RESET_DELAY) {
-                resetGameWithReason("post-game-over restart");
-                return;
-            }
+            // The game over frame is static until input arrives or the auto-reset delay runs out.
+            onDemandRendering.holdFrame(frame.gameOverTimeLeft);
             return;
         }
-
-        if (!autoWinTriggered) {
-            autoWinTimer += Gdx.graphics.getDeltaTime();
-            if (autoWinTimer >= AUTO_WIN_DELAY) {
-                triggerGameOver(true, "auto-win");
-            }
-        }
+        onDemandRendering.release();
 
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -198,16 +333,57 @@ public class Main extends ApplicationAdapter {
         batch.setProjectionMatrix(camera.combined);
 
         batch.begin();
-        batch.draw(backgroundTexture, 0, 0, 800, 600); // Draw background
-        batch.draw(hamsterTexture, hamster.x, hamster.y);
-        batch.draw(gradeTexture, grade.x, grade.y);
-        for (Rectangle block : blocks) {
-            batch.draw(blockTexture, block.x, block.y);
+        batch.draw(atlas.background, 0, 0, GameWorld.WORLD_WIDTH, GameWorld.WORLD_HEIGHT); // Draw background
+        batch.draw(atlas.hamster, frame.hamster.x, frame.hamster.y);
+        batch.draw(atlas.grade, frame.grade.x, frame.grade.y);
+        for (int i = 0; i < frame.blockCount; i++) {
+            batch.draw(atlas.block, frame.blockX[i], frame.blockY[i]);
+        }
+        font.draw(batch, "Hamster: " + frame.hamsterScore, 10, 590);
+        font.draw(batch, "Grade: " + frame.gradeScore, 10, 560);
+        if (showLatency) {
+            font.draw(batch, inputLatency.getSummary(), 10, 530);
         }
-        font.draw(batch, "Hamster: " + hamsterScore, 10, 590);
-        font.draw(batch, "Grade: " + gradeScore, 10, 560);
         batch.end();
 
+        controlRenderer.render();
+    }
+
+    private void pollInput() {
+        readInput();
+        int buttons = input.toButtons();
+        if (autoPlay || buttons == lastButtons) {
+            inputLatency.discardEvents();
+            inputNanos = 0;
+        } else {
+            inputNanos = inputLatency.takeEventTime();
+        }
+        // Restart is a one-frame press; letting go of it isn't input worth timing.
+        lastButtons = buttons & ~HamsterInput.RESTART;
+    }
+
+    private void readInput() {
+        input.clear();
+        boolean controllerButtonPressed = inputLatency.takeControllerButtonPress();
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F9)) {
+            // Dumped by the next update, so the recording isn't read while a tick writes it.
+            flightRecordRequested = true;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F8)) {
+            autoPlay = !autoPlay;
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F7)) {
+            showLatency = !showLatency;
+        }
+        if (autoPlay) {
+            // The bot reads the world, so it steers in update(), on whichever thread runs the simulation.
+            return;
+        }
+        if (frames.front().gameOver) {
+            input.restart = controllerButtonPressed || shouldRestartGame();
+            return;
+        }
+
         // Hamster movement
         if (Gdx.app.getType() == com.badlogic.gdx.Application.ApplicationType.Android) {
 
@@ -215,130 +391,33 @@ public class Main extends ApplicationAdapter {
             float x1 = (Gdx.input.getX(1) / (float)Gdx.graphics.getWidth()) * 480;
             float y0 = 320 - (Gdx.input.getY(0) / (float)Gdx.graphics.getHeight()) * 320;
 
-            boolean leftButton = (Gdx.input.isTouched(0) && x0 < 70) || (Gdx.input.isTouched(1) && x1 < 70);
-            boolean rightButton = (Gdx.input.isTouched(0) && x0 > 70 && x0 < 134) || (Gdx.input.isTouched(1) && x1 > 70 && x1 < 134);
-            boolean downButton = (Gdx.input.isTouched(0) && x0 > 416 && x0 < 480 && y0 > 320 - 128 && y0 < 320 - 64)
+            input.left = (Gdx.input.isTouched(0) && x0 < 70) || (Gdx.input.isTouched(1) && x1 < 70);
+            input.right = (Gdx.input.isTouched(0) && x0 > 70 && x0 < 134) || (Gdx.input.isTouched(1) && x1 > 70 && x1 < 134);
+            input.down = (Gdx.input.isTouched(0) && x0 > 416 && x0 < 480 && y0 > 320 - 128 && y0 < 320 - 64)
                 || (Gdx.input.isTouched(1) && x1 > 416 && x1 < 480 && y0 > 320 - 128 && y0 < 320 -64);
-            boolean upButton = (Gdx.input.isTouched(0) && x0 > 416 && x0 < 480 && y0 > 320 - 64)
+            input.up = (Gdx.input.isTouched(0) && x0 > 416 && x0 < 480 && y0 > 320 - 64)
                 || (Gdx.input.isTouched(1) && x1 > 416 && x1 < 480 && y0 > 320 - 64);
 
-
-            if (upButton){
-                hamster.y += 200 * Gdx.graphics.getDeltaTime(); // Y increases upwards
-            }
-            if (leftButton ){
-                hamster.x -= 200 * Gdx.graphics.getDeltaTime();
-            }
-            if (downButton){
-                hamster.y -= 200 * Gdx.graphics.getDeltaTime(); // Y decreases downwards
-            }
-            if (rightButton){
-                hamster.x += 200 * Gdx.graphics.getDeltaTime();
-            }
-
-        } else {
-            if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) hamster.x -= 200 * Gdx.graphics.getDeltaTime();
-            if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) hamster.x += 200 * Gdx.graphics.getDeltaTime();
-            if (Gdx.input.isKeyPressed(Input.Keys.UP)) hamster.y += 200 * Gdx.graphics.getDeltaTime(); // Y increases upwards
-            if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) hamster.y -= 200 * Gdx.graphics.getDeltaTime(); // Y decreases downwards
-        }
-
-        hamster.x = MathUtils.clamp(hamster.x, 0, 800 - hamster.width);
-        hamster.y = MathUtils.clamp(hamster.y, 0, 600 - hamster.height);
-
-        grade.x += gradeDirection.x * 100 * Gdx.graphics.getDeltaTime();
-        grade.y += gradeDirection.y * 100 * Gdx.graphics.getDeltaTime();
-
-        if (grade.x < 0 || grade.x > 800 - 64) gradeDirection.x = -gradeDirection.x;
-        if (grade.y < 0 || grade.y > 600 - 64) gradeDirection.y = -gradeDirection.y;
-
-        for (Rectangle block : blocks) {
-            Rectangle intersection = new Rectangle();
-            if (Intersector.intersectRectangles(hamster, block, intersection)) {
-                if (intersection.width < intersection.height) {
-                    if (hamster.x < block.x) {
-                        hamster.x -= intersection.width;
-                    } else {
-                        hamster.x += intersection.width;
-                    }
-                } else {
-                    if (hamster.y < block.y) {
-                        hamster.y -= intersection.height;
-                    } else {
-                        hamster.y += intersection.height;
-                    }
-                }
-            }
-
-            if (Intersector.intersectRectangles(grade, block, intersection)) {
-                if (intersection.width < intersection.height) {
-                    if (grade.x < block.x) {
-                        grade.x -= intersection.width;
-                    } else {
-                        grade.x += intersection.width;
-                    }
-                    gradeDirection.x = -gradeDirection.x;
-                } else {
-                    if (grade.y < block.y) {
-                        grade.y -= intersection.height;
-                    } else {
-                        grade.y += intersection.height;
-                    }
-                    gradeDirection.y = -gradeDirection.y;
-                }
-            }
-        }
-
-        hamster.x = MathUtils.clamp(hamster.x, 0, 800 - hamster.width);
-        hamster.y = MathUtils.clamp(hamster.y, 0, 600 - hamster.height);
-        grade.x = MathUtils.clamp(grade.x, 0, 800 - grade.width);
-        grade.y = MathUtils.clamp(grade.y, 0, 600 - grade.height);
-
-        if (!gameOver && hamster.overlaps(grade)) {
-            triggerGameOver(true, "collision");
-        }
-        controlRenderer.render();
-    }
-
-    private void triggerGameOver(boolean hamsterWon, String reason) {
-        if (gameOver) {
-            return;
-        }
-        gameOver = true;
-        hamsterWin = hamsterWon;
-        gameOverElapsed = 0f;
-        if (hamsterWon) {
-            hamsterScore++;
-            blocks.clear();
         } else {
-            gradeScore++;
+            input.left = Gdx.input.isKeyPressed(Input.Keys.LEFT);
+            input.right = Gdx.input.isKeyPressed(Input.Keys.RIGHT);
+            input.up = Gdx.input.isKeyPressed(Input.Keys.UP);
+            input.down = Gdx.input.isKeyPressed(Input.Keys.DOWN);
         }
-        autoWinTriggered = true;
-        logSceneTransition(currentScene, SCENE_GAME_OVER, (hamsterWon ? "hamster victory" : "grade victory") + " via " + reason);
-        currentScene = SCENE_GAME_OVER;
-    }
-
-    private void logSceneStart(String message) {
-        if (Gdx.app != null) {
-            Gdx.app.log(TAG, message + " on " + Gdx.app.getType());
-        } else {
-            System.out.println(TAG + ": " + message);
+        Controller controller = Controllers.getCurrent();
+        if (controller != null) {
+            readController(controller);
         }
     }
 
-    private void logSceneTransition(String fromScene, String toScene, String reason) {
-        StringBuilder builder = new StringBuilder();
-        if (fromScene == null) {
-            builder.append("Entering ").append(toScene);
-        } else if (fromScene.equals(toScene)) {
-            builder.append("Staying on ").append(toScene);
-        } else {
-            builder.append("Transition ").append(fromScene).append(" -> ").append(toScene);
-        }
-        if (reason != null && !reason.isEmpty()) {
-            builder.append(" (reason: ").append(reason).append(")");
-        }
-        logSceneStart(builder.toString());
+    private void readController(Controller controller) {
+        ControllerMapping mapping = controller.getMapping();
+        float x = controller.getAxis(mapping.axisLeftX);
+        float y = controller.getAxis(mapping.axisLeftY); // Positive is down.
+        input.left |= controller.getButton(mapping.buttonDpadLeft) || x < -InputLatency.STICK_DEAD_ZONE;
+        input.right |= controller.getButton(mapping.buttonDpadRight) || x > InputLatency.STICK_DEAD_ZONE;
+        input.up |= controller.getButton(mapping.buttonDpadUp) || y < -InputLatency.STICK_DEAD_ZONE;
+        input.down |= controller.getButton(mapping.buttonDpadDown) || y > InputLatency.STICK_DEAD_ZONE;
     }
 
     private boolean shouldRestartGame() {
@@ -356,12 +435,13 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (simulationLoop != null) simulationLoop.stop();
+        Controllers.removeListener(inputLatency.getControllerListener());
+        onDemandRendering.release();
         batch.dispose();
-        hamsterTexture.dispose();
-        gradeTexture.dispose();
-        blockTexture.dispose();
-        backgroundTexture.dispose();
-        font.dispose();
+        atlas.dispose();
         controlRenderer.dispose();
+        // A clean exit starts the next launch with a fresh round.
+        deleteResumeFile();
     }
 }
@@ -0,0 +1,43 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Timer;
+
+/**
+ * Switches libGDX to render-on-demand while a scene shows a static frame. Input events still
+ * trigger a frame on every backend; the timer wakes the loop up when the scene's countdown ends.
+ */
+class OnDemandRendering {
+    // Keeps float rounding in the scene timer from scheduling a wake-up that lands just short of it.
+    private static final float MIN_WAKE_UP = 1f / 60f;
+
+    private final Timer.Task wakeUp = new Timer.Task() {
+        @Override
+        public void run() {
+            Gdx.graphics.requestRendering();
+        }
+    };
+    private boolean holding;
+
+    /** Stops continuous rendering and asks for the next frame in {@code wakeUpIn} seconds. */
+    void holdFrame(float wakeUpIn) {
+        if (!holding) {
+            Gdx.graphics.setContinuousRendering(false);
+            holding = true;
+        }
+        wakeUp.cancel();
+        Timer.schedule(wakeUp, Math.max(wakeUpIn, MIN_WAKE_UP));
+    }
+
+    /** Goes back to rendering every frame. */
+    void release() {
+        if (!holding) return;
+        holding = false;
+        wakeUp.cancel();
+        Gdx.graphics.setContinuousRendering(true);
+    }
+
+    boolean isHolding() {
+        return holding;
+    }
+}
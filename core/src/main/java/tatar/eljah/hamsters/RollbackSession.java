@@ -0,0 +1,124 @@
+package tatar.eljah.hamsters;
+
+/**
+ * Rollback netplay over a {@link GameWorld} shared by a local and a remote player, one steering the
+ * hamster and the other the grade. Every tick runs straight away with the local input and a
+ * prediction of the remote one: the last remote input that was confirmed. A {@link RoundSnapshot} is
+ * kept for each tick in the window. When a confirmed remote input differs from what was predicted, the
+ * world is restored to that tick and every tick since is run again with the corrected input, so the
+ * local player never waits on the network. Ticks run again don't report round ends or count frames a
+ * second time; what the first run reported stands.
+ */
+public final class RollbackSession {
+    private final GameWorld world;
+    private final boolean localIsHamster;
+    private final float delta;
+    private final int window;
+    private final RoundSnapshot[] snapshots;
+    private final byte[] localInputs;
+    // The remote input each tick in the window actually ran with, confirmed or predicted.
+    private final byte[] usedRemoteInputs;
+    // Remote inputs live in a ring twice the window, so inputs for ticks we haven't run yet fit too.
+    private final byte[] remoteInputs;
+    private final int[] remoteFrames;
+    private final boolean[] remoteConfirmed;
+    private final HamsterInput hamsterInput = new HamsterInput();
+    private final HamsterInput gradeInput = new HamsterInput();
+
+    private int frame;
+    private int lastConfirmedFrame = -1;
+    private byte lastConfirmedInput;
+    private int resimulatedTicks;
+
+    /**
+     * @param window how many past ticks can be corrected, which bounds the remote latency that can be hidden
+     * @param delta the fixed tick length in seconds
+     */
+    public RollbackSession(GameWorld world, boolean localIsHamster, int window, float delta) {
+        if (window <= 0) throw new IllegalArgumentException("window must be positive: " + window);
+        this.world = world;
+        this.localIsHamster = localIsHamster;
+        this.window = window;
+        this.delta = delta;
+        snapshots = new RoundSnapshot[window];
+        for (int i = 0; i < window; i++) {
+            snapshots[i] = new RoundSnapshot();
+        }
+        localInputs = new byte[window];
+        usedRemoteInputs = new byte[window];
+        remoteInputs = new byte[window * 2];
+        remoteFrames = new int[window * 2];
+        remoteConfirmed = new boolean[window * 2];
+        java.util.Arrays.fill(remoteFrames, -1);
+    }
+
+    /** The number of ticks run so far, which is also the tick the next {@link #step} runs. */
+    public int getFrame() {
+        return frame;
+    }
+
+    /** Ticks run a second time because a prediction was wrong; a measure of how visible the latency is. */
+    public int getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    /** Runs the next tick with {@code local} and the predicted remote input. */
+    public void step(HamsterInput local) {
+        int slot = frame % window;
+        world.save(snapshots[slot]);
+        localInputs[slot] = (byte) local.toButtons();
+        simulate(frame);
+        frame++;
+    }
+
+    /**
+     * Records the remote player's actual input for {@code remoteFrame}. Returns the number of ticks that
+     * were run again because the prediction for it was wrong, zero if it was right or the tick hasn't run yet.
+     */
+    public int confirmRemote(int remoteFrame, HamsterInput remote) {
+        if (remoteFrame < 0 || remoteFrame < frame - window || remoteFrame >= frame + window) {
+            throw new IllegalArgumentException("Remote tick " + remoteFrame + " is outside the rollback window at tick " + frame);
+        }
+        byte input = (byte) remote.toButtons();
+        int slot = remoteFrame % remoteInputs.length;
+        boolean mispredicted = remoteFrame < frame && usedRemoteInputs[remoteFrame % window] != input;
+        remoteInputs[slot] = input;
+        remoteFrames[slot] = remoteFrame;
+        remoteConfirmed[slot] = true;
+        if (remoteFrame > lastConfirmedFrame) {
+            lastConfirmedFrame = remoteFrame;
+            lastConfirmedInput = input;
+        }
+        if (!mispredicted) return 0;
+
+        world.restore(snapshots[remoteFrame % window]);
+        world.setReplaying(true);
+        try {
+            for (int tick = remoteFrame; tick < frame; tick++) {
+                if (tick > remoteFrame) world.save(snapshots[tick % window]);
+                simulate(tick);
+            }
+        } finally {
+            world.setReplaying(false);
+        }
+        int replayed = frame - remoteFrame;
+        resimulatedTicks += replayed;
+        return replayed;
+    }
+
+    private void simulate(int tick) {
+        byte local = localInputs[tick % window];
+        byte remote = remoteInput(tick);
+        usedRemoteInputs[tick % window] = remote;
+        hamsterInput.setButtons(localIsHamster ? local : remote);
+        gradeInput.setButtons(localIsHamster ? remote : local);
+        world.update(delta, hamsterInput, gradeInput);
+    }
+
+    /** The confirmed remote input for {@code tick}, or the prediction for it. */
+    private byte remoteInput(int tick) {
+        int slot = tick % remoteInputs.length;
+        if (remoteFrames[slot] == tick && remoteConfirmed[slot]) return remoteInputs[slot];
+        return lastConfirmedInput;
+    }
+}
@@ -0,0 +1,12 @@
+package tatar.eljah.hamsters;
+
+/** Told about every finished round by a {@link GameWorld}; see {@link GameWorld#setRoundListener}. */
+public interface RoundListener {
+    RoundListener NONE = stats -> { };
+
+    /**
+     * Called from the simulation thread when a round ends. {@code stats} is reused for the next round,
+     * so copy what you need and return quickly.
+     */
+    void roundEnded(RoundStats stats);
+}
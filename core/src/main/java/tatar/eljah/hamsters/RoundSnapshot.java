@@ -0,0 +1,99 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The complete state of a {@link GameWorld} in a fixed {@value #SIZE}-int array: both rectangles, the
+ * grade's direction, the blocks in placement order, flags, timers, scores, the scene and the random
+ * generator, with floats stored as their raw bits. Taking or restoring one allocates nothing, so a
+ * snapshot can be kept for every tick; see {@link GameWorld#save(RoundSnapshot)}.
+ */
+public final class RoundSnapshot {
+    static final int HAMSTER = 0;
+    static final int GRADE = 4;
+    static final int GRADE_DIRECTION = 8;
+    static final int FLAGS = 10;
+    static final int GAME_OVER_ELAPSED = 11;
+    static final int AUTO_WIN_TIMER = 12;
+    static final int ROUND_SEED = 13;
+    static final int HAMSTER_SCORE = 15;
+    static final int GRADE_SCORE = 16;
+    static final int RANDOM_STATE = 17;
+    static final int BLOCK_COUNT = 21;
+    static final int BLOCK_CELLS = 22;
+    /** Block cells are packed four to an int; every cell fits in a byte. */
+    public static final int SIZE = BLOCK_CELLS + (GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT + 3) / 4;
+    public static final int BYTES = SIZE * 4;
+
+    /** Starts a file written by {@link #save(FileHandle)}, followed by {@link #SIZE} and the data. */
+    public static final int FILE_MAGIC = 0x48525331; // "HRS1"
+
+    static final int FLAG_GAME_OVER = 1;
+    static final int FLAG_HAMSTER_WIN = 1 << 1;
+    static final int FLAG_AUTO_WIN_TRIGGERED = 1 << 2;
+    static final int FLAG_BLOCKS_PRESENT = 1 << 3;
+    // The scene's ordinal plus one (zero before the first round) sits above the flag bits.
+    static final int SCENE_SHIFT = 8;
+
+    final int[] data = new int[SIZE];
+
+    public void set(RoundSnapshot other) {
+        System.arraycopy(other.data, 0, data, 0, SIZE);
+    }
+
+    public void write(ByteBuffer out) {
+        for (int value : data) {
+            out.putInt(value);
+        }
+    }
+
+    public void read(ByteBuffer in) {
+        for (int i = 0; i < SIZE; i++) {
+            data[i] = in.getInt();
+        }
+    }
+
+    /** Writes the snapshot to {@code file}; returns false instead of throwing when it can't. */
+    public boolean save(FileHandle file) {
+        ByteBuffer out = ByteBuffer.allocate(8 + BYTES);
+        out.putInt(FILE_MAGIC).putInt(SIZE);
+        write(out);
+        try {
+            file.writeBytes(out.array(), false);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(FileHandle)}. Returns false, leaving this snapshot as it
+     * was, when the file can't be read or was written by a build with a different layout.
+     */
+    public boolean load(FileHandle file) {
+        ByteBuffer in;
+        try {
+            in = ByteBuffer.wrap(file.readBytes());
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (in.remaining() != 8 + BYTES || in.getInt() != FILE_MAGIC || in.getInt() != SIZE) return false;
+        read(in);
+        return true;
+    }
+
+    /** Cheap fingerprint of the state, for comparing peers or replays. */
+    public int stateHash() {
+        int hash = 1;
+        for (int value : data) {
+            hash = 31 * hash + value;
+        }
+        return hash;
+    }
+
+    public boolean sameState(RoundSnapshot other) {
+        return java.util.Arrays.equals(data, other.data);
+    }
+}
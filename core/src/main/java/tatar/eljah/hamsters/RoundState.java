@@ -0,0 +1,84 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Everything that belongs to a single round. One instance lives as long as its {@link GameWorld}
+ * and is cleared in place between rounds; block rectangles are recycled through a pool.
+ */
+public class RoundState {
+    final Rectangle hamster = new Rectangle();
+    final Rectangle grade = new Rectangle();
+    final Array<Rectangle> blocks = new Array<>(GameWorld.BLOCK_COUNT);
+    final boolean[][] grid = new boolean[GameWorld.GRID_WIDTH][GameWorld.GRID_HEIGHT];
+    final Vector2 gradeDirection = new Vector2();
+    // Cells of the round's blocks in the order they were added, kept after the rectangles are removed.
+    final int[] blockCells = new int[GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT];
+    int blockCellCount;
+
+    boolean gameOver;
+    boolean hamsterWin;
+    float gameOverElapsed;
+    float autoWinTimer;
+    boolean autoWinTriggered;
+    long seed;
+
+    private final Pool<Rectangle> blockPool = new Pool<Rectangle>(GameWorld.BLOCK_COUNT) {
+        @Override
+        protected Rectangle newObject() {
+            return new Rectangle();
+        }
+    };
+
+    void clear() {
+        gameOver = false;
+        hamsterWin = false;
+        gameOverElapsed = 0f;
+        autoWinTimer = 0f;
+        autoWinTriggered = false;
+        removeBlocks();
+        blockCellCount = 0;
+        for (boolean[] column : grid) {
+            java.util.Arrays.fill(column, false);
+        }
+        hamster.set(0, 0, 0, 0);
+        grade.set(0, 0, 0, 0);
+        gradeDirection.setZero();
+    }
+
+    void addBlock(int gx, int gy) {
+        Rectangle block = blockPool.obtain();
+        block.set(gx * (float) GameWorld.CELL_SIZE, gy * (float) GameWorld.CELL_SIZE, GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+        blocks.add(block);
+        grid[gx][gy] = true;
+        blockCells[blockCellCount++] = gx * GameWorld.GRID_HEIGHT + gy;
+    }
+
+    /** Rebuilds the grid, and the block rectangles when {@code withRectangles} is set, from {@link #blockCells}. */
+    void rebuildBlocks(boolean withRectangles) {
+        removeBlocks();
+        for (boolean[] column : grid) {
+            java.util.Arrays.fill(column, false);
+        }
+        int count = blockCellCount;
+        blockCellCount = 0;
+        for (int i = 0; i < count; i++) {
+            int cell = blockCells[i];
+            addBlock(cell / GameWorld.GRID_HEIGHT, cell % GameWorld.GRID_HEIGHT);
+        }
+        if (!withRectangles) removeBlocks();
+    }
+
+    /** Returns the block rectangles to the pool; the occupancy grid is left untouched. */
+    void removeBlocks() {
+        blockPool.freeAll(blocks);
+        blocks.clear();
+    }
+
+    int getFreeBlockCount() {
+        return blockPool.getFree();
+    }
+}
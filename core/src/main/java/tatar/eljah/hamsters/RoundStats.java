@@ -0,0 +1,61 @@
+package tatar.eljah.hamsters;
+
+/**
+ * Metrics of one round, filled in by its {@link GameWorld}: how it was generated, how it ended and
+ * how long its frames took. Frame times go into a fixed histogram of
+ * {@value #BUCKET_MILLIS} ms buckets, so tracking them costs an increment per frame.
+ */
+public final class RoundStats {
+    static final float BUCKET_MILLIS = 0.5f;
+    // The last bucket collects every frame slower than 100 ms.
+    private static final int BUCKETS = 201;
+
+    public long seed;
+    public String startReason;
+    public boolean hamsterWon;
+    /** True when a reset cut the round short before either side won; {@link #endReason} is then the reset's. */
+    public boolean aborted;
+    public String endReason;
+    public float duration;
+    public int frames;
+    public int hamsterScore;
+    public int gradeScore;
+    private final int[] frameTimes = new int[BUCKETS];
+    private float maxFrameMillis;
+
+    void start(long seed, String reason) {
+        this.seed = seed;
+        startReason = reason;
+        hamsterWon = false;
+        aborted = false;
+        endReason = null;
+        duration = 0f;
+        frames = 0;
+        maxFrameMillis = 0f;
+        java.util.Arrays.fill(frameTimes, 0);
+    }
+
+    void frame(float delta) {
+        float millis = delta * 1000f;
+        frames++;
+        duration += delta;
+        frameTimes[Math.min(BUCKETS - 1, (int) (millis / BUCKET_MILLIS))]++;
+        if (millis > maxFrameMillis) maxFrameMillis = millis;
+    }
+
+    /** Upper edge, in milliseconds, of the bucket holding the {@code quantile} (0..1) frame time. */
+    public float frameTimePercentile(float quantile) {
+        if (frames == 0) return 0f;
+        int rank = Math.max(1, (int) Math.ceil(quantile * frames));
+        int seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += frameTimes[i];
+            if (seen >= rank) return Math.min(maxFrameMillis, (i + 1) * BUCKET_MILLIS);
+        }
+        return maxFrameMillis;
+    }
+
+    public float maxFrameMillis() {
+        return maxFrameMillis;
+    }
+}
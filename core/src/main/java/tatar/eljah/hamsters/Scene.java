@@ -0,0 +1,27 @@
+package tatar.eljah.hamsters;
+
+/** The scenes a {@link GameWorld} moves between, and which moves are legal. */
+public enum Scene {
+    GAMEPLAY("Scene 1 (Gameplay)"),
+    GAME_OVER("Scene 2 (Game Over)");
+
+    private final String label;
+
+    Scene(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /** Gameplay may restart itself or end in game over; game over only leads back to gameplay. */
+    public boolean canMoveTo(Scene next) {
+        return next == GAMEPLAY || this != next;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
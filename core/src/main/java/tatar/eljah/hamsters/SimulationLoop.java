@@ -0,0 +1,15 @@
+package tatar.eljah.hamsters;
+
+/**
+ * Runs the simulation tick away from the render loop at {@link #TICKS_PER_SECOND}; see
+ * {@link Main#setSimulationLoop(SimulationLoop)}. Without one, Main updates the world once per frame.
+ */
+public interface SimulationLoop {
+    int TICKS_PER_SECOND = 60;
+
+    /** Starts calling {@code tick} at the fixed rate; does nothing when already running. */
+    void start(Runnable tick);
+
+    /** Stops calling the tick and returns once the last one has finished. */
+    void stop();
+}
@@ -0,0 +1,62 @@
+package tatar.eljah.hamsters;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SimulationLoop} on its own daemon thread, so GC pauses and driver stalls on the GL thread
+ * no longer slow the game down, and the simulation can use a second core. Ticks the thread itself
+ * fell behind on are caught up, but never more than {@link #MAX_CATCH_UP} at once. Not available
+ * in the web build.
+ */
+public final class SimulationThread implements SimulationLoop {
+    static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    static final int MAX_CATCH_UP = 5;
+
+    private Thread thread;
+
+    @Override
+    public synchronized void start(Runnable tick) {
+        if (thread != null) return;
+        thread = new Thread(() -> run(tick), "hamsters-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread and waits for its last tick. The simulation thread itself may call this too, from a
+     * crash handler while it dies, so the join happens outside the lock and a thread never waits for itself.
+     */
+    @Override
+    public void stop() {
+        Thread running;
+        synchronized (this) {
+            running = thread;
+        }
+        if (running == null) return;
+        running.interrupt();
+        if (running != Thread.currentThread()) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        synchronized (this) {
+            if (thread == running) thread = null;
+        }
+    }
+
+    private static void run(Runnable tick) {
+        long next = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            if (now - next > MAX_CATCH_UP * TICK_NANOS) next = now;
+            while (now - next >= 0) {
+                tick.run();
+                next += TICK_NANOS;
+            }
+            LockSupport.parkNanos(next - now);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package tatar.eljah.hamsters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the newest of a stream of values from one writer thread to one reader thread without locks
+ * or allocation. The writer fills {@link #back()} and calls {@link #publish()}, which swaps it with
+ * the middle slot; the reader's {@link #update()} swaps the middle slot in as {@link #front()} when
+ * something new was published. Neither side waits for the other, values the reader was too slow for
+ * are overwritten, and the reader never sees a slot the writer is still filling.
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    // Index of the middle slot, plus FRESH while it holds a value the reader hasn't taken yet.
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public TripleBuffer(T first, T second, T third) {
+        slots = new Object[]{first, second, third};
+    }
+
+    /** The slot the writer fills next; only the writer thread may touch it. */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) slots[back];
+    }
+
+    /** Makes the filled back slot the newest value and gives the writer a free one. */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /** Takes the newest published value as {@link #front()}; returns false when there was none since the last call. */
+    public boolean update() {
+        if ((middle.get() & FRESH) == 0) return false;
+        front = middle.getAndSet(front) & INDEX;
+        return true;
+    }
+
+    /** The value the reader took last; only the reader thread may touch it. */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        return (T) slots[front];
+    }
+}
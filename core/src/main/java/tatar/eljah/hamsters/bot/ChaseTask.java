@@ -0,0 +1,21 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.math.Rectangle;
+
+/** Runs straight at the grade; the fallback when no path leads to its cell. */
+final class ChaseTask extends LeafTask<HamsterBot> {
+    @Override
+    public Status execute() {
+        HamsterBot bot = getObject();
+        Rectangle grade = bot.world.getGrade();
+        bot.steerTowards(grade.x + grade.width / 2f, grade.y + grade.height / 2f);
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<HamsterBot> copyTo(Task<HamsterBot> task) {
+        return task;
+    }
+}
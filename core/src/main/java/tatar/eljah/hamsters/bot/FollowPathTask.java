@@ -0,0 +1,35 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+
+/** Heads for the centre of the path's next cell, and for the grade itself once in its cell. */
+final class FollowPathTask extends LeafTask<HamsterBot> {
+    @Override
+    public Status execute() {
+        HamsterBot bot = getObject();
+        Rectangle hamster = bot.world.getHamster();
+        float half = GameWorld.CELL_SIZE / 2f;
+        while (bot.waypoint < bot.path.getCount()) {
+            GridGraph.Cell next = bot.path.get(bot.waypoint);
+            float x = next.x * GameWorld.CELL_SIZE + half;
+            float y = next.y * GameWorld.CELL_SIZE + half;
+            if (Math.abs(x - (hamster.x + hamster.width / 2f)) > HamsterBot.DEAD_ZONE
+                    || Math.abs(y - (hamster.y + hamster.height / 2f)) > HamsterBot.DEAD_ZONE) {
+                bot.steerTowards(x, y);
+                return Status.SUCCEEDED;
+            }
+            bot.waypoint++;
+        }
+        Rectangle grade = bot.world.getGrade();
+        bot.steerTowards(grade.x + grade.width / 2f, grade.y + grade.height / 2f);
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<HamsterBot> copyTo(Task<HamsterBot> task) {
+        return task;
+    }
+}
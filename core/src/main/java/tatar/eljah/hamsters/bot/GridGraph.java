@@ -0,0 +1,88 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.utils.Array;
+import tatar.eljah.hamsters.GameWorld;
+
+/**
+ * The arena's free cells as a graph for gdx-ai's {@code IndexedAStarPathFinder}, four-connected with
+ * unit costs. Nodes and every possible connection are created once; {@link #rebuild} only re-links
+ * them for a new layout.
+ */
+final class GridGraph implements IndexedGraph<GridGraph.Cell> {
+    static final int WIDTH = GameWorld.GRID_WIDTH;
+    static final int HEIGHT = GameWorld.GRID_HEIGHT;
+
+    static final class Cell {
+        final int index;
+        final int x;
+        final int y;
+        final Array<Connection<Cell>> connections = new Array<>(false, 4);
+        // Connections to the right, up, left and down neighbours, or null at the edge.
+        final DefaultConnection<Cell>[] toNeighbours;
+
+        @SuppressWarnings("unchecked")
+        Cell(int x, int y) {
+            this.index = x * HEIGHT + y;
+            this.x = x;
+            this.y = y;
+            toNeighbours = (DefaultConnection<Cell>[]) new DefaultConnection<?>[4];
+        }
+    }
+
+    static final Heuristic<Cell> MANHATTAN = (node, end) -> Math.abs(node.x - end.x) + Math.abs(node.y - end.y);
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    private final Cell[] cells = new Cell[WIDTH * HEIGHT];
+
+    GridGraph() {
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) cells[x * HEIGHT + y] = new Cell(x, y);
+        }
+        for (Cell cell : cells) {
+            for (int direction = 0; direction < 4; direction++) {
+                int nx = cell.x + DX[direction];
+                int ny = cell.y + DY[direction];
+                if (nx >= 0 && ny >= 0 && nx < WIDTH && ny < HEIGHT) {
+                    cell.toNeighbours[direction] = new DefaultConnection<>(cell, cells[nx * HEIGHT + ny]);
+                }
+            }
+        }
+    }
+
+    /** Links every pair of neighbouring free cells of {@code grid}. */
+    void rebuild(boolean[][] grid) {
+        for (Cell cell : cells) {
+            cell.connections.clear();
+            if (grid[cell.x][cell.y]) continue;
+            for (DefaultConnection<Cell> connection : cell.toNeighbours) {
+                if (connection != null && !grid[connection.getToNode().x][connection.getToNode().y]) {
+                    cell.connections.add(connection);
+                }
+            }
+        }
+    }
+
+    Cell cell(int x, int y) {
+        return cells[x * HEIGHT + y];
+    }
+
+    @Override
+    public int getIndex(Cell node) {
+        return node.index;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return cells.length;
+    }
+
+    @Override
+    public Array<Connection<Cell>> getConnections(Cell fromNode) {
+        return fromNode.connections;
+    }
+}
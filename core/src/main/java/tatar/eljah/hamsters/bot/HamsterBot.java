@@ -0,0 +1,76 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+/**
+ * Plays the hamster for soak tests and balance runs. A gdx-ai behavior tree restarts finished rounds,
+ * otherwise follows an A* path through the grid to the grade's cell, and falls back to running
+ * straight at the grade when there is no path. The path is only searched again when the grade moves
+ * to another cell or a new layout starts. The tree, graph, path finder and path are built once, so a
+ * tick allocates nothing.
+ */
+public final class HamsterBot {
+    // Half of one 60 Hz step: pressing from further away never overshoots by more than this, so the
+    // hamster settles without jitter and is lined up closely enough to slide past block corners.
+    static final float DEAD_ZONE = GameWorld.HAMSTER_SPEED / 60f / 2f;
+
+    final GameWorld world;
+    HamsterInput input;
+    final GridGraph graph = new GridGraph();
+    final IndexedAStarPathFinder<GridGraph.Cell> pathFinder = new IndexedAStarPathFinder<>(graph);
+    final DefaultGraphPath<GridGraph.Cell> path = new DefaultGraphPath<>(GridGraph.WIDTH * GridGraph.HEIGHT);
+    /** The path's next cell; the path is used up once this reaches its length. */
+    int waypoint;
+    boolean hasLayout;
+    long layoutSeed;
+    int targetCell = -1;
+    boolean pathFound;
+    int searches;
+    private final BehaviorTree<HamsterBot> tree;
+
+    @SuppressWarnings("unchecked")
+    public HamsterBot(GameWorld world) {
+        this.world = world;
+        tree = new BehaviorTree<>(new Selector<>(
+                new RestartTask(),
+                new Sequence<>(new PlanPathTask(), new FollowPathTask()),
+                new ChaseTask()), this);
+    }
+
+    /** Fills {@code input} for this tick, the way the keyboard or touch controls would. */
+    public void steer(HamsterInput input) {
+        this.input = input;
+        input.clear();
+        tree.step();
+    }
+
+    /** How many times a path has been searched for; stays put while the grade stays in its cell. */
+    public int getSearches() {
+        return searches;
+    }
+
+    static int cellOf(Rectangle area, boolean horizontal) {
+        float centre = horizontal ? area.x + area.width / 2f : area.y + area.height / 2f;
+        int limit = horizontal ? GridGraph.WIDTH - 1 : GridGraph.HEIGHT - 1;
+        return MathUtils.clamp((int) (centre / GameWorld.CELL_SIZE), 0, limit);
+    }
+
+    /** Presses towards the point (x, y) from the hamster's centre. */
+    void steerTowards(float x, float y) {
+        Rectangle hamster = world.getHamster();
+        float dx = x - (hamster.x + hamster.width / 2f);
+        float dy = y - (hamster.y + hamster.height / 2f);
+        input.left = dx < -DEAD_ZONE;
+        input.right = dx > DEAD_ZONE;
+        input.down = dy < -DEAD_ZONE;
+        input.up = dy > DEAD_ZONE;
+    }
+}
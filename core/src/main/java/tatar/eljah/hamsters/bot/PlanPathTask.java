@@ -0,0 +1,44 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Keeps a path from the hamster's cell to the grade's. Succeeds with the cached path while the grade
+ * stays in its cell on the same layout, searches again when either changes, and fails when the grade's
+ * cell can't be reached.
+ */
+final class PlanPathTask extends LeafTask<HamsterBot> {
+    @Override
+    public Status execute() {
+        HamsterBot bot = getObject();
+        long seed = bot.world.getRoundSeed();
+        if (!bot.hasLayout || seed != bot.layoutSeed) {
+            bot.graph.rebuild(bot.world.getGrid());
+            bot.hasLayout = true;
+            bot.layoutSeed = seed;
+            bot.targetCell = -1;
+        }
+
+        Rectangle grade = bot.world.getGrade();
+        int gradeX = HamsterBot.cellOf(grade, true);
+        int gradeY = HamsterBot.cellOf(grade, false);
+        int target = gradeX * GridGraph.HEIGHT + gradeY;
+        if (target != bot.targetCell) {
+            Rectangle hamster = bot.world.getHamster();
+            GridGraph.Cell start = bot.graph.cell(HamsterBot.cellOf(hamster, true), HamsterBot.cellOf(hamster, false));
+            bot.path.clear();
+            bot.pathFound = bot.pathFinder.searchNodePath(start, bot.graph.cell(gradeX, gradeY), GridGraph.MANHATTAN, bot.path);
+            bot.waypoint = 1;
+            bot.targetCell = target;
+            bot.searches++;
+        }
+        return bot.pathFound ? Status.SUCCEEDED : Status.FAILED;
+    }
+
+    @Override
+    protected Task<HamsterBot> copyTo(Task<HamsterBot> task) {
+        return task;
+    }
+}
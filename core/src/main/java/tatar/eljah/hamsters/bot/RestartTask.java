@@ -0,0 +1,20 @@
+package tatar.eljah.hamsters.bot;
+
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+
+/** Asks for the next round while the game is over; fails during play. */
+final class RestartTask extends LeafTask<HamsterBot> {
+    @Override
+    public Status execute() {
+        HamsterBot bot = getObject();
+        if (!bot.world.isGameOver()) return Status.FAILED;
+        bot.input.restart = true;
+        return Status.SUCCEEDED;
+    }
+
+    @Override
+    protected Task<HamsterBot> copyTo(Task<HamsterBot> task) {
+        return task;
+    }
+}
@@ -0,0 +1,73 @@
+package tatar.eljah.hamsters.chunks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import tatar.eljah.hamsters.CellRing;
+
+/**
+ * A square of {@link #SIZE} x {@link #SIZE} cells of the chunked world, generated from the world seed
+ * and its coordinates alone, so an evicted chunk comes back identical. The outermost ring of cells is
+ * always free and blocks never split the free cells inside, so every free cell of the world is
+ * reachable from every other.
+ */
+public final class Chunk {
+    public static final int SHIFT = 4;
+    public static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+    /** Share of the inner cells that get a block. */
+    static final float DENSITY = 0.3f;
+    private static final int TARGET_BLOCKS = (int) ((SIZE - 2) * (SIZE - 2) * DENSITY);
+    private static final int MAX_PICKS = TARGET_BLOCKS * 4;
+
+    int chunkX;
+    int chunkY;
+    long key;
+    // Indexed by x * SIZE + y, like the arena's search scratch space.
+    private final boolean[] blocked = new boolean[SIZE * SIZE];
+    // Only asked about the rings of inner cells, which never reach outside the chunk.
+    private final CellRing.Occupancy freeCells = (x, y) -> !blocked[x * SIZE + y];
+    private int blockCount;
+    // Links of the cache's recency list.
+    Chunk newer;
+    Chunk older;
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /** @param x,y cell coordinates inside the chunk, 0 to {@link #SIZE} - 1 */
+    public boolean isBlocked(int x, int y) {
+        return blocked[x * SIZE + y];
+    }
+
+    static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    void generate(long worldSeed, int chunkX, int chunkY, RandomXS128 random) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        key = key(chunkX, chunkY);
+        java.util.Arrays.fill(blocked, false);
+        blockCount = 0;
+        random.setSeed(worldSeed ^ chunkX * 0x9E3779B97F4A7C15L ^ chunkY * 0xC2B2AE3D27D4EB4FL);
+
+        boolean spawnChunk = chunkX == 0 && chunkY == 0;
+        for (int pick = 0; pick < MAX_PICKS && blockCount < TARGET_BLOCKS; pick++) {
+            int x = 1 + random.nextInt(SIZE - 2);
+            int y = 1 + random.nextInt(SIZE - 2);
+            if (blocked[x * SIZE + y] || (spawnChunk && x == SIZE / 2 && y == SIZE / 2)) continue;
+            // The ring alone, without the arena's fallback search: stricter, but it only costs a few blocks.
+            if (CellRing.neighbourRuns(freeCells, x, y) > 1) continue;
+            blocked[x * SIZE + y] = true;
+            blockCount++;
+        }
+    }
+}
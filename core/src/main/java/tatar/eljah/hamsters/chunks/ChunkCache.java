@@ -0,0 +1,107 @@
+package tatar.eljah.hamsters.chunks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Keeps the most recently used chunks of a seeded world and generates the rest on demand. Once
+ * {@code capacity} chunks exist the least recently used one is regenerated in place for the new
+ * coordinates, so memory stays the same however far the player travels and nothing is allocated
+ * after warm-up.
+ */
+public final class ChunkCache {
+    private final long worldSeed;
+    private final int capacity;
+    private final LongMap<Chunk> chunks;
+    private final RandomXS128 random = new RandomXS128();
+    private Chunk newest;
+    private Chunk oldest;
+    private int chunkObjects;
+    private long loads;
+    private long evictions;
+
+    public ChunkCache(long worldSeed, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+        this.worldSeed = worldSeed;
+        this.capacity = capacity;
+        chunks = new LongMap<>(capacity * 2);
+    }
+
+    /** Returns the chunk at the given chunk coordinates, generating it if it isn't cached. */
+    public Chunk get(int chunkX, int chunkY) {
+        long key = Chunk.key(chunkX, chunkY);
+        Chunk chunk = newest;
+        if (chunk != null && chunk.key == key) return chunk;
+        chunk = chunks.get(key);
+        if (chunk != null) {
+            unlink(chunk);
+            linkNewest(chunk);
+            return chunk;
+        }
+        if (chunkObjects < capacity) {
+            chunk = new Chunk();
+            chunkObjects++;
+        } else {
+            chunk = oldest;
+            unlink(chunk);
+            chunks.remove(chunk.key);
+            evictions++;
+        }
+        chunk.generate(worldSeed, chunkX, chunkY, random);
+        chunks.put(key, chunk);
+        linkNewest(chunk);
+        loads++;
+        return chunk;
+    }
+
+    /** Whether the cell at world cell coordinates holds a block. */
+    public boolean isBlocked(int cellX, int cellY) {
+        return get(cellX >> Chunk.SHIFT, cellY >> Chunk.SHIFT).isBlocked(cellX & Chunk.MASK, cellY & Chunk.MASK);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return chunks.size;
+    }
+
+    /** Chunks generated so far, including ones generated again after eviction. */
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    int getChunkObjects() {
+        return chunkObjects;
+    }
+
+    private void unlink(Chunk chunk) {
+        if (chunk.newer != null) {
+            chunk.newer.older = chunk.older;
+        } else {
+            newest = chunk.older;
+        }
+        if (chunk.older != null) {
+            chunk.older.newer = chunk.newer;
+        } else {
+            oldest = chunk.newer;
+        }
+        chunk.newer = null;
+        chunk.older = null;
+    }
+
+    private void linkNewest(Chunk chunk) {
+        chunk.older = newest;
+        if (newest != null) {
+            newest.newer = chunk;
+        } else {
+            oldest = chunk;
+        }
+        newest = chunk;
+    }
+}
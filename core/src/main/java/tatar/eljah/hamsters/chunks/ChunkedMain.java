@@ -0,0 +1,103 @@
+package tatar.eljah.hamsters.chunks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.TimeUtils;
+import tatar.eljah.hamsters.GameAtlas;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+/**
+ * Runs {@link ChunkedWorld} with a camera that follows the hamster. Each frame only the chunks that
+ * overlap the view are fetched from the cache, and only their cells inside the view are drawn. All
+ * sprites come from the {@link GameAtlas}, so a frame is one batch flush however many chunks are visible.
+ */
+public class ChunkedMain extends ApplicationAdapter {
+    private final long seed;
+    private ChunkedWorld world;
+    private final HamsterInput input = new HamsterInput();
+    private SpriteBatch batch;
+    private OrthographicCamera camera;
+    private GameAtlas atlas;
+
+    public ChunkedMain() {
+        this(TimeUtils.millis());
+    }
+
+    public ChunkedMain(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public void create() {
+        world = new ChunkedWorld(seed);
+        batch = new SpriteBatch();
+        camera = new OrthographicCamera();
+        camera.setToOrtho(false, GameWorld.WORLD_WIDTH, GameWorld.WORLD_HEIGHT);
+        atlas = new GameAtlas();
+    }
+
+    @Override
+    public void render() {
+        input.clear();
+        input.left = Gdx.input.isKeyPressed(Input.Keys.LEFT);
+        input.right = Gdx.input.isKeyPressed(Input.Keys.RIGHT);
+        input.up = Gdx.input.isKeyPressed(Input.Keys.UP);
+        input.down = Gdx.input.isKeyPressed(Input.Keys.DOWN);
+        world.update(Gdx.graphics.getDeltaTime(), input);
+
+        Rectangle hamster = world.getHamster();
+        camera.position.set(hamster.x + hamster.width / 2, hamster.y + hamster.height / 2, 0);
+        camera.update();
+
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(camera.combined);
+        batch.begin();
+        drawVisibleChunks();
+        batch.draw(atlas.hamster, hamster.x, hamster.y);
+        batch.end();
+    }
+
+    private void drawVisibleChunks() {
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2;
+        int left = ChunkedWorld.cell(camera.position.x - halfWidth);
+        int right = ChunkedWorld.cell(camera.position.x + halfWidth);
+        int bottom = ChunkedWorld.cell(camera.position.y - halfHeight);
+        int top = ChunkedWorld.cell(camera.position.y + halfHeight);
+        int cell = ChunkedWorld.CELL_SIZE;
+        ChunkCache chunks = world.getChunks();
+        for (int chunkX = left >> Chunk.SHIFT; chunkX <= right >> Chunk.SHIFT; chunkX++) {
+            for (int chunkY = bottom >> Chunk.SHIFT; chunkY <= top >> Chunk.SHIFT; chunkY++) {
+                Chunk chunk = chunks.get(chunkX, chunkY);
+                int originX = chunkX << Chunk.SHIFT;
+                int originY = chunkY << Chunk.SHIFT;
+                batch.draw(atlas.background, originX * (float) cell, originY * (float) cell,
+                        ChunkedWorld.CHUNK_PIXELS, ChunkedWorld.CHUNK_PIXELS);
+                int fromX = Math.max(left, originX) - originX;
+                int toX = Math.min(right, originX + Chunk.MASK) - originX;
+                int fromY = Math.max(bottom, originY) - originY;
+                int toY = Math.min(top, originY + Chunk.MASK) - originY;
+                for (int x = fromX; x <= toX; x++) {
+                    for (int y = fromY; y <= toY; y++) {
+                        if (chunk.isBlocked(x, y)) {
+                            batch.draw(atlas.block, (originX + x) * (float) cell, (originY + y) * (float) cell);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        batch.dispose();
+        atlas.dispose();
+    }
+}
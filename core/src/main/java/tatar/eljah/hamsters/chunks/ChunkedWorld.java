@@ -0,0 +1,73 @@
+package tatar.eljah.hamsters.chunks;
+
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+/**
+ * The open-ended world mode: the hamster roams a plane of seeded {@link Chunk}s instead of one
+ * screen. GL-free like {@link GameWorld}; only the chunks around the hamster and the view are kept.
+ * Positions are floats, which stay exact to a fraction of a pixel for the first few million pixels
+ * in any direction.
+ */
+public class ChunkedWorld {
+    public static final int CELL_SIZE = GameWorld.CELL_SIZE;
+    public static final int CHUNK_PIXELS = Chunk.SIZE * CELL_SIZE;
+    /** Enough for a 3 x 3 block of chunks around any view no larger than a chunk, plus the ones just left behind. */
+    public static final int DEFAULT_CACHE_CHUNKS = 16;
+
+    private final ChunkCache chunks;
+    private final Rectangle hamster = new Rectangle();
+
+    public ChunkedWorld(long seed) {
+        this(seed, DEFAULT_CACHE_CHUNKS);
+    }
+
+    public ChunkedWorld(long seed, int cacheChunks) {
+        chunks = new ChunkCache(seed, cacheChunks);
+        // The middle cell of chunk (0, 0) is never blocked.
+        hamster.set(Chunk.SIZE / 2 * CELL_SIZE, Chunk.SIZE / 2 * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+    }
+
+    public Rectangle getHamster() {
+        return hamster;
+    }
+
+    public ChunkCache getChunks() {
+        return chunks;
+    }
+
+    /** Moves the hamster one axis at a time, undoing a step that would run into a block. */
+    public void update(float delta, HamsterInput input) {
+        float step = GameWorld.HAMSTER_SPEED * delta;
+        float dx = (input.right ? step : 0f) - (input.left ? step : 0f);
+        float dy = (input.up ? step : 0f) - (input.down ? step : 0f);
+        if (dx != 0f) {
+            hamster.x += dx;
+            if (overlapsBlock(hamster)) hamster.x -= dx;
+        }
+        if (dy != 0f) {
+            hamster.y += dy;
+            if (overlapsBlock(hamster)) hamster.y -= dy;
+        }
+    }
+
+    /** Whether any cell under {@code area} holds a block. */
+    public boolean overlapsBlock(Rectangle area) {
+        int left = cell(area.x);
+        int right = cell(area.x + area.width - 0.001f);
+        int bottom = cell(area.y);
+        int top = cell(area.y + area.height - 0.001f);
+        for (int x = left; x <= right; x++) {
+            for (int y = bottom; y <= top; y++) {
+                if (chunks.isBlocked(x, y)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** The cell containing world coordinate {@code position}, rounding towards negative infinity. */
+    public static int cell(float position) {
+        return (int) Math.floor(position / CELL_SIZE);
+    }
+}
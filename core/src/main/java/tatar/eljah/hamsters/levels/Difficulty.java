@@ -0,0 +1,6 @@
+package tatar.eljah.hamsters.levels;
+
+/** Difficulty bands of a {@link LevelPack}; each band is a contiguous run of records. */
+public enum Difficulty {
+    EASY, MEDIUM, HARD
+}
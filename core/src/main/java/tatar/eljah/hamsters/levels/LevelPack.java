@@ -0,0 +1,155 @@
+package tatar.eljah.hamsters.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import tatar.eljah.hamsters.GameWorld;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A read-only pack of pre-generated, pre-validated levels in fixed-size records, so a round reset is a
+ * single record lookup instead of random placement and reachability searches.
+ * <p>
+ * Layout (big-endian): a {@value #HEADER_SIZE}-byte header with magic, version, grid size, record size,
+ * record count and the start and length of each {@link Difficulty} band, followed by
+ * {@value #RECORD_SIZE}-byte records sorted by difficulty. A record holds the occupancy bits
+ * (four ints), the hamster and grade cells, and the path length, detour, reachable-cell and block
+ * count metrics.
+ */
+public final class LevelPack {
+    public static final int MAGIC = 0x484C5650; // "HLVP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16 + Difficulty.values().length * 8;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int OCCUPANCY_OFFSET = 0;
+    private static final int HAMSTER_OFFSET = 16;
+    private static final int GRADE_OFFSET = 18;
+    private static final int PATH_OFFSET = 20;
+    private static final int ABOVE_PATH_OFFSET = 22;
+    private static final int REACHABLE_OFFSET = 24;
+    private static final int BLOCKS_OFFSET = 26;
+    private static final int BAND_OFFSET = 27;
+
+    private static final Difficulty[] BANDS = Difficulty.values();
+
+    private final ByteBuffer data;
+    private final int count;
+    private final int[] bandStart = new int[BANDS.length];
+    private final int[] bandSize = new int[BANDS.length];
+
+    private LevelPack(ByteBuffer data) {
+        this.data = data;
+        data.order(ByteOrder.BIG_ENDIAN);
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a level pack");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new GdxRuntimeException("Unsupported level pack version " + data.getShort(4));
+        }
+        if (data.get(6) != GameWorld.GRID_WIDTH || data.get(7) != GameWorld.GRID_HEIGHT
+                || data.getShort(8) != RECORD_SIZE) {
+            throw new GdxRuntimeException("Level pack was built for a different grid");
+        }
+        count = data.getInt(12);
+        if (data.limit() < HEADER_SIZE + count * RECORD_SIZE) {
+            throw new GdxRuntimeException("Level pack is truncated");
+        }
+        for (int i = 0; i < BANDS.length; i++) {
+            bandStart[i] = data.getInt(16 + i * 8);
+            bandSize[i] = data.getInt(20 + i * 8);
+        }
+    }
+
+    /** Reads a pack from a buffer positioned anywhere; only absolute reads are used. */
+    public static LevelPack wrap(ByteBuffer data) {
+        return new LevelPack(data);
+    }
+
+    /** Copies the file into a direct buffer; used where the file can't be memory-mapped (Android assets, web). */
+    public static LevelPack load(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        ByteBuffer buffer = BufferUtils.newByteBuffer(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return wrap(buffer);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int bandSize(Difficulty band) {
+        return bandSize[band.ordinal()];
+    }
+
+    /** Index of the {@code i}-th record of a band. */
+    public int index(Difficulty band, int i) {
+        return bandStart[band.ordinal()] + i;
+    }
+
+    public void read(int index, LevelRecord out) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("level " + index + " of " + count);
+        int base = HEADER_SIZE + index * RECORD_SIZE;
+        for (int i = 0; i < LevelRecord.OCCUPANCY_WORDS; i++) {
+            out.occupancy[i] = data.getInt(base + OCCUPANCY_OFFSET + i * 4);
+        }
+        out.hamsterCell = data.getShort(base + HAMSTER_OFFSET);
+        out.gradeCell = data.getShort(base + GRADE_OFFSET);
+        out.pathLength = data.getShort(base + PATH_OFFSET);
+        out.abovePathLength = data.getShort(base + ABOVE_PATH_OFFSET);
+        out.reachableCells = data.getShort(base + REACHABLE_OFFSET);
+        out.blockCount = data.get(base + BLOCKS_OFFSET);
+        out.band = BANDS[data.get(base + BAND_OFFSET)];
+    }
+
+    public static int encodedSize(int count) {
+        return HEADER_SIZE + count * RECORD_SIZE;
+    }
+
+    /**
+     * Writes {@code records}, which must already be sorted by difficulty with their bands assigned,
+     * into {@code out} at its current position.
+     */
+    public static void write(LevelRecord[] records, ByteBuffer out) {
+        out.order(ByteOrder.BIG_ENDIAN);
+        int[] start = new int[BANDS.length];
+        int[] size = new int[BANDS.length];
+        for (int i = records.length - 1; i >= 0; i--) {
+            int band = records[i].band.ordinal();
+            if (i > 0 && records[i - 1].band.ordinal() > band) {
+                throw new IllegalArgumentException("Records must be ordered by band");
+            }
+            start[band] = i;
+            size[band]++;
+        }
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        out.put((byte) GameWorld.GRID_WIDTH);
+        out.put((byte) GameWorld.GRID_HEIGHT);
+        out.putShort((short) RECORD_SIZE);
+        out.putShort((short) 0);
+        out.putInt(records.length);
+        for (int i = 0; i < BANDS.length; i++) {
+            out.putInt(size[i] == 0 ? 0 : start[i]);
+            out.putInt(size[i]);
+        }
+        for (LevelRecord record : records) {
+            for (int i = 0; i < LevelRecord.OCCUPANCY_WORDS; i++) {
+                out.putInt(record.occupancy[i]);
+            }
+            out.putShort((short) record.hamsterCell);
+            out.putShort((short) record.gradeCell);
+            out.putShort((short) record.pathLength);
+            out.putShort((short) record.abovePathLength);
+            out.putShort((short) record.reachableCells);
+            out.put((byte) record.blockCount);
+            out.put((byte) record.band.ordinal());
+            for (int i = BAND_OFFSET + 1; i < RECORD_SIZE; i++) {
+                out.put((byte) 0);
+            }
+        }
+    }
+}
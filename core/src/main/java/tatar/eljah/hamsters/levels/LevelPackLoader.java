@@ -0,0 +1,8 @@
+package tatar.eljah.hamsters.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/** How a platform opens a level pack; desktop maps the file, everything else copies it into memory. */
+public interface LevelPackLoader {
+    LevelPack load(FileHandle file);
+}
@@ -0,0 +1,63 @@
+package tatar.eljah.hamsters.levels;
+
+import tatar.eljah.hamsters.GameWorld;
+
+/**
+ * One level of a {@link LevelPack}: which cells are blocked, where the hamster and the grade start,
+ * and the metrics the pack is sorted by. Cells are numbered {@code x * GRID_HEIGHT + y}.
+ */
+public class LevelRecord {
+    static final int OCCUPANCY_WORDS = 4;
+
+    final int[] occupancy = new int[OCCUPANCY_WORDS];
+    public int hamsterCell;
+    public int gradeCell;
+    /** Shortest hamster-to-grade path, in cells. */
+    public int pathLength;
+    /** Shortest path to the cell above the grade when the grade's own cell is blocked. */
+    public int abovePathLength;
+    /** Free cells the hamster can reach. */
+    public int reachableCells;
+    public int blockCount;
+    public Difficulty band = Difficulty.EASY;
+
+    public static int cell(int x, int y) {
+        return x * GameWorld.GRID_HEIGHT + y;
+    }
+
+    public static int cellX(int cell) {
+        return cell / GameWorld.GRID_HEIGHT;
+    }
+
+    public static int cellY(int cell) {
+        return cell % GameWorld.GRID_HEIGHT;
+    }
+
+    public boolean isBlocked(int cell) {
+        return (occupancy[cell >>> 5] & (1 << (cell & 31))) != 0;
+    }
+
+    public void setBlocked(int cell, boolean blocked) {
+        if (blocked) {
+            occupancy[cell >>> 5] |= 1 << (cell & 31);
+        } else {
+            occupancy[cell >>> 5] &= ~(1 << (cell & 31));
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < OCCUPANCY_WORDS; i++) occupancy[i] = 0;
+        hamsterCell = 0;
+        gradeCell = 0;
+        pathLength = 0;
+        abovePathLength = 0;
+        reachableCells = 0;
+        blockCount = 0;
+        band = Difficulty.EASY;
+    }
+
+    /** Difficulty score used to order a pack: longer routes to the grade and around it are harder. */
+    public int score() {
+        return pathLength + abovePathLength;
+    }
+}
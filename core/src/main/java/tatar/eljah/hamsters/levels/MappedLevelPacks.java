@@ -0,0 +1,33 @@
+package tatar.eljah.hamsters.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Desktop loader that memory-maps a level pack, so only the records actually used are paged in.
+ * Packs that only exist inside a jar or APK fall back to {@link LevelPack#load(FileHandle)}.
+ */
+public final class MappedLevelPacks {
+    private MappedLevelPacks() {
+    }
+
+    public static LevelPack load(FileHandle file) {
+        File onDisk = file.file();
+        if (!onDisk.isFile()) {
+            return LevelPack.load(file);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(onDisk, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return LevelPack.wrap(buffer);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't map level pack " + onDisk, e);
+        }
+    }
+}
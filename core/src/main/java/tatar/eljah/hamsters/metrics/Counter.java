@@ -0,0 +1,12 @@
+package tatar.eljah.hamsters.metrics;
+
+/** A monotonically increasing count. */
+public interface Counter {
+    Counter NONE = n -> { };
+
+    void add(long n);
+
+    default void increment() {
+        add(1);
+    }
+}
@@ -0,0 +1,45 @@
+package tatar.eljah.hamsters.metrics;
+
+/**
+ * The metrics the game records, as no-ops until a registry is installed, so GWT and Android builds
+ * pay one static field read and an empty call per event. Desktop and headless launchers install a
+ * real registry at startup; see {@code JvmMetrics} in the {@code jvm} module.
+ */
+public final class GameMetrics {
+    private static final long MS = 1_000_000L;
+    /** Frame intervals: fine-grained around 60, 30 and 20 fps, coarse beyond. */
+    static final long[] FRAME_BUCKETS = {4 * MS, 8 * MS, 12 * MS, 16 * MS, 17 * MS, 20 * MS, 25 * MS,
+            33 * MS, 34 * MS, 50 * MS, 67 * MS, 100 * MS, 250 * MS};
+    /** Input latency: steps of about a 60 Hz frame up to 100 ms. */
+    static final long[] INPUT_BUCKETS = {8 * MS, 17 * MS, 25 * MS, 33 * MS, 50 * MS, 67 * MS, 83 * MS, 100 * MS,
+            150 * MS, 250 * MS};
+    static final long[] RESET_BUCKETS = {10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L, MS,
+            5 * MS, 25 * MS};
+
+    public static Histogram frameTime = Histogram.NONE;
+    public static Histogram resetTime = Histogram.NONE;
+    public static Histogram inputLatency = Histogram.NONE;
+    public static Counter bfsCalls = Counter.NONE;
+    public static Counter rounds = Counter.NONE;
+
+    private GameMetrics() {
+    }
+
+    public static void install(MetricsRegistry registry) {
+        frameTime = registry.histogram("hamsters_frame_time_seconds", "Time between rendered frames.", FRAME_BUCKETS);
+        resetTime = registry.histogram("hamsters_reset_time_seconds", "Time to generate and start a round.", RESET_BUCKETS);
+        inputLatency = registry.histogram("hamsters_input_latency_seconds",
+                "From an input event to the end of the first frame drawing a tick that saw it.", INPUT_BUCKETS);
+        bfsCalls = registry.counter("hamsters_bfs_calls_total", "Reachability searches run by the round generator.");
+        rounds = registry.counter("hamsters_rounds_total", "Rounds started.");
+    }
+
+    /** Puts the no-op metrics back. */
+    public static void uninstall() {
+        frameTime = Histogram.NONE;
+        resetTime = Histogram.NONE;
+        inputLatency = Histogram.NONE;
+        bfsCalls = Counter.NONE;
+        rounds = Counter.NONE;
+    }
+}
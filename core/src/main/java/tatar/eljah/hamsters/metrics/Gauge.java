@@ -0,0 +1,6 @@
+package tatar.eljah.hamsters.metrics;
+
+/** A value that is read when the metrics are collected rather than pushed. */
+public interface Gauge {
+    double value();
+}
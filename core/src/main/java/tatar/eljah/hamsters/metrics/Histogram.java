@@ -0,0 +1,8 @@
+package tatar.eljah.hamsters.metrics;
+
+/** Counts durations into fixed buckets. */
+public interface Histogram {
+    Histogram NONE = nanos -> { };
+
+    void recordNanos(long nanos);
+}
@@ -0,0 +1,15 @@
+package tatar.eljah.hamsters.metrics;
+
+/**
+ * Creates named metrics. Names follow Prometheus conventions ({@code snake_case}, unit suffix). The
+ * implementation lives in the JVM-only {@code jvm} module; the game itself only talks to
+ * {@link GameMetrics}.
+ */
+public interface MetricsRegistry {
+    Counter counter(String name, String help);
+
+    /** @param bucketBoundsNanos ascending upper bounds; anything slower lands in an implicit last bucket */
+    Histogram histogram(String name, String help, long[] bucketBoundsNanos);
+
+    void gauge(String name, String help, Gauge gauge);
+}
@@ -0,0 +1,207 @@
+package tatar.eljah.hamsters.rl;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps K independent worlds at once for reinforcement-learning training, in the shape of a
+ * vectorised gym environment: one action per environment in, one flat observation array plus
+ * reward and done arrays out. Environments are split across a {@link ForkJoinPool}, and apart from
+ * those few tasks nothing is allocated per step.
+ * <p>
+ * An observation is {@value #GRID_CELLS} occupancy values (1 for a block, indexed
+ * {@code x * GRID_HEIGHT + y}), then the hamster and grade positions scaled to 0..1 and the grade's
+ * direction. Environment {@code i} occupies {@code [i * OBSERVATION_SIZE, (i + 1) * OBSERVATION_SIZE)}.
+ * A round that ends reports its reward and {@code done}, and the environment is reset on the spot, so
+ * the observation written alongside is already the first one of the next round.
+ */
+public class VecEnv {
+    public static final int ACTION_IDLE = 0;
+    public static final int ACTION_LEFT = 1;
+    public static final int ACTION_RIGHT = 2;
+    public static final int ACTION_UP = 3;
+    public static final int ACTION_DOWN = 4;
+    public static final int ACTION_COUNT = 5;
+
+    public static final int GRID_CELLS = GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT;
+    public static final int OBSERVATION_SIZE = GRID_CELLS + 6;
+
+    private static final float TICK = 1f / 60f;
+
+    private final GameWorld[] worlds;
+    private final HamsterInput[] inputs;
+    private final ForkJoinPool pool;
+    // Below this many environments a task steps them itself instead of splitting further.
+    private final int grain;
+
+    private int[] actions;
+    private float[] observationArray;
+    private FloatBuffer observationBuffer;
+    private float[] rewards;
+    private boolean[] dones;
+
+    public VecEnv(int count, long seed) {
+        this(count, seed, ForkJoinPool.commonPool());
+    }
+
+    public VecEnv(int count, long seed, ForkJoinPool pool) {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive: " + count);
+        this.pool = pool;
+        worlds = new GameWorld[count];
+        inputs = new HamsterInput[count];
+        for (int i = 0; i < count; i++) {
+            worlds[i] = new GameWorld(seed + i);
+            worlds[i].setSceneLogging(false);
+            inputs[i] = new HamsterInput();
+        }
+        grain = Math.max(16, count / (pool.getParallelism() * 4));
+    }
+
+    public int size() {
+        return worlds.length;
+    }
+
+    /** Starts a new round in every environment and writes the first observations. */
+    public void reset(float[] observations) {
+        checkObservations(observations.length);
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i].reset();
+            writeObservation(i, observations, null);
+        }
+    }
+
+    public void reset(FloatBuffer observations) {
+        checkObservations(observations.capacity());
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i].reset();
+            writeObservation(i, null, observations);
+        }
+    }
+
+    /** Applies {@code actions} to every environment, advances each by one tick and fills the output arrays. */
+    public void step(int[] actions, float[] observations, float[] rewards, boolean[] dones) {
+        checkObservations(observations.length);
+        step(actions, observations, null, rewards, dones);
+    }
+
+    /** As {@link #step(int[], float[], float[], boolean[])}, writing into a (possibly direct) buffer with absolute puts. */
+    public void step(int[] actions, FloatBuffer observations, float[] rewards, boolean[] dones) {
+        checkObservations(observations.capacity());
+        step(actions, null, observations, rewards, dones);
+    }
+
+    private void step(int[] actions, float[] array, FloatBuffer buffer, float[] rewards, boolean[] dones) {
+        int count = worlds.length;
+        if (actions.length < count || rewards.length < count || dones.length < count) {
+            throw new IllegalArgumentException("actions, rewards and dones need " + count + " entries");
+        }
+        this.actions = actions;
+        this.observationArray = array;
+        this.observationBuffer = buffer;
+        this.rewards = rewards;
+        this.dones = dones;
+        try {
+            if (count <= grain) {
+                stepRange(0, count);
+            } else {
+                pool.invoke(new StepTask(0, count));
+            }
+        } finally {
+            this.actions = null;
+            this.observationArray = null;
+            this.observationBuffer = null;
+            this.rewards = null;
+            this.dones = null;
+        }
+    }
+
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            GameWorld world = worlds[i];
+            HamsterInput input = inputs[i];
+            input.clear();
+            switch (actions[i]) {
+                case ACTION_LEFT: input.left = true; break;
+                case ACTION_RIGHT: input.right = true; break;
+                case ACTION_UP: input.up = true; break;
+                case ACTION_DOWN: input.down = true; break;
+                case ACTION_IDLE: break;
+                default: throw new IllegalArgumentException("Unknown action " + actions[i] + " for environment " + i);
+            }
+            world.update(TICK, input);
+            if (world.isGameOver()) {
+                rewards[i] = world.isHamsterWin() ? 1f : -1f;
+                dones[i] = true;
+                world.reset();
+            } else {
+                rewards[i] = 0f;
+                dones[i] = false;
+            }
+            writeObservation(i, observationArray, observationBuffer);
+        }
+    }
+
+    private void writeObservation(int env, float[] array, FloatBuffer buffer) {
+        GameWorld world = worlds[env];
+        int base = env * OBSERVATION_SIZE;
+        boolean[][] grid = world.getGrid();
+        int index = base;
+        for (int x = 0; x < GameWorld.GRID_WIDTH; x++) {
+            boolean[] column = grid[x];
+            for (int y = 0; y < GameWorld.GRID_HEIGHT; y++) {
+                put(array, buffer, index++, column[y] ? 1f : 0f);
+            }
+        }
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        Vector2 direction = world.getGradeDirection();
+        put(array, buffer, index++, hamster.x / GameWorld.WORLD_WIDTH);
+        put(array, buffer, index++, hamster.y / GameWorld.WORLD_HEIGHT);
+        put(array, buffer, index++, grade.x / GameWorld.WORLD_WIDTH);
+        put(array, buffer, index++, grade.y / GameWorld.WORLD_HEIGHT);
+        put(array, buffer, index++, direction.x);
+        put(array, buffer, index, direction.y);
+    }
+
+    private static void put(float[] array, FloatBuffer buffer, int index, float value) {
+        if (array != null) {
+            array[index] = value;
+        } else {
+            buffer.put(index, value);
+        }
+    }
+
+    private void checkObservations(int length) {
+        if (length < worlds.length * OBSERVATION_SIZE) {
+            throw new IllegalArgumentException("observations need " + worlds.length * OBSERVATION_SIZE + " floats, got " + length);
+        }
+    }
+
+    private final class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                stepRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StepTask(from, middle), new StepTask(middle, to));
+        }
+    }
+}
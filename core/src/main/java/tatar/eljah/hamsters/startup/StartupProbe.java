@@ -0,0 +1,61 @@
+package tatar.eljah.hamsters.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Reports that a launcher reached its first frame, for the JVM vs native-image startup benchmark.
+ * Enabled with {@code -Dhamsters.startupProbe=true}; the launcher is expected to exit once
+ * {@link #ready(String)} returns true.
+ */
+public final class StartupProbe {
+    public static final String PROPERTY = "hamsters.startupProbe";
+    public static final String READY_MARKER = "STARTUP_READY";
+
+    private static boolean reported;
+
+    private StartupProbe() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Prints a single {@value #READY_MARKER} line with the peak and current resident set size of
+     * this process (read from {@code /proc/self/status}, so only available on Linux).
+     *
+     * @return whether the probe is enabled and the caller should shut down
+     */
+    public static synchronized boolean ready(String launcher) {
+        if (!isEnabled()) return false;
+        if (!reported) {
+            reported = true;
+            System.out.println(READY_MARKER + " launcher=" + launcher
+                    + " peakRssKb=" + readStatusKb("VmHWM")
+                    + " rssKb=" + readStatusKb("VmRSS"));
+            System.out.flush();
+        }
+        return true;
+    }
+
+    private static long readStatusKb(String key) {
+        File status = new File("/proc/self/status");
+        if (!status.isFile()) return -1;
+        try (BufferedReader reader = new BufferedReader(new FileReader(status))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(key + ":")) {
+                    String value = line.substring(key.length() + 1).trim();
+                    int space = value.indexOf(' ');
+                    return Long.parseLong(space < 0 ? value : value.substring(0, space));
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // fall through and report the value as unknown
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,310 @@
+package tatar.eljah.hamsters.telemetry;
+
+import tatar.eljah.hamsters.RoundListener;
+import tatar.eljah.hamsters.RoundStats;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams per-round stats to disk as newline-delimited JSON or CSV from a background thread. The game
+ * thread only copies the numbers into a row and offers it to a lock-free queue; the writer wakes up a
+ * few times a second, formats whatever has piled up into one buffered batch and rotates to a new file
+ * once the current one passes {@code maxFileBytes}, keeping {@code maxFiles} of them.
+ */
+public final class TelemetryWriter implements RoundListener, Closeable {
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /** Directory to write round telemetry to; telemetry is off when unset. */
+    public static final String DIRECTORY_PROPERTY = "hamsters.telemetry";
+    /** {@code ndjson} (the default) or {@code csv}. */
+    public static final String FORMAT_PROPERTY = "hamsters.telemetryFormat";
+    static final long DEFAULT_MAX_FILE_BYTES = 8L * 1024 * 1024;
+    static final int DEFAULT_MAX_FILES = 5;
+
+    static final String CSV_HEADER = "seed,start_reason,winner,end_reason,duration_s,frames,"
+            + "frame_p50_ms,frame_p95_ms,frame_p99_ms,frame_max_ms,hamster_score,grade_score";
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final File directory;
+    private final String baseName;
+    private final Format format;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final ConcurrentLinkedQueue<Row> queue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private Writer out;
+    private long fileBytes;
+    private long rowsWritten;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public TelemetryWriter(File directory, String baseName, Format format, long maxFileBytes, int maxFiles) throws IOException {
+        if (maxFiles < 1) throw new IllegalArgumentException("maxFiles must be at least 1");
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Can't create " + directory);
+        this.directory = directory;
+        this.baseName = baseName;
+        this.format = format;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        open();
+        thread = new Thread(this::run, "telemetry-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates a writer for {@code rounds.*} in the directory named by {@value #DIRECTORY_PROPERTY} that is
+     * closed on JVM shutdown, or returns null when the property isn't set or the directory is unusable.
+     */
+    public static TelemetryWriter fromSystemProperties() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isEmpty()) return null;
+        Format format = "csv".equalsIgnoreCase(System.getProperty(FORMAT_PROPERTY)) ? Format.CSV : Format.NDJSON;
+        try {
+            TelemetryWriter writer = new TelemetryWriter(new File(directory), "rounds", format,
+                    DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }, "telemetry-shutdown"));
+            return writer;
+        } catch (IOException e) {
+            System.err.println("Telemetry disabled: " + e);
+            return null;
+        }
+    }
+
+    /** The file currently being written; older ones get {@code .1}, {@code .2}, ... before the extension. */
+    public File currentFile() {
+        return file(0);
+    }
+
+    File file(int generation) {
+        return new File(directory, baseName + (generation == 0 ? "" : "." + generation) + "." + format.extension);
+    }
+
+    @Override
+    public void roundEnded(RoundStats stats) {
+        if (!closed) queue.offer(new Row(stats));
+    }
+
+    /** Only this thread touches the file, including the last drain and closing it after {@link #close()}. */
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(this, POLL_NANOS);
+            drain();
+        }
+        drain();
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Telemetry close failed: " + e);
+        }
+    }
+
+    private void drain() {
+        Row row = queue.poll();
+        if (row == null) return;
+        try {
+            while (row != null) {
+                format(row);
+                if (fileBytes > 0 && fileBytes + line.length() > maxFileBytes) rotate();
+                out.write(line.toString());
+                fileBytes += line.length();
+                rowsWritten++;
+                row = queue.poll();
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Telemetry write failed: " + e);
+        }
+    }
+
+    long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    private void format(Row row) {
+        StringBuilder line = this.line;
+        line.setLength(0);
+        if (format == Format.NDJSON) {
+            line.append("{\"seed\":").append(row.seed).append(",\"startReason\":");
+            appendJson(line, row.startReason);
+            line.append(",\"winner\":\"").append(row.winner())
+                    .append("\",\"endReason\":");
+            appendJson(line, row.endReason);
+            line.append(",\"durationS\":").append(decimal(row.duration))
+                    .append(",\"frames\":").append(row.frames)
+                    .append(",\"frameP50Ms\":").append(decimal(row.p50))
+                    .append(",\"frameP95Ms\":").append(decimal(row.p95))
+                    .append(",\"frameP99Ms\":").append(decimal(row.p99))
+                    .append(",\"frameMaxMs\":").append(decimal(row.max))
+                    .append(",\"hamsterScore\":").append(row.hamsterScore)
+                    .append(",\"gradeScore\":").append(row.gradeScore)
+                    .append("}\n");
+        } else {
+            line.append(row.seed).append(',');
+            appendCsv(line, row.startReason);
+            line.append(',').append(row.winner()).append(',');
+            appendCsv(line, row.endReason);
+            line.append(',').append(decimal(row.duration)).append(',').append(row.frames)
+                    .append(',').append(decimal(row.p50)).append(',').append(decimal(row.p95))
+                    .append(',').append(decimal(row.p99)).append(',').append(decimal(row.max))
+                    .append(',').append(row.hamsterScore).append(',').append(row.gradeScore).append('\n');
+        }
+    }
+
+    /** Appends {@code value} as a JSON string literal, or {@code null}. */
+    static void appendJson(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    /** Appends {@code value} as a CSV field, quoted as RFC 4180 requires; null is an empty field. */
+    static void appendCsv(StringBuilder line, String value) {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String decimal(float value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private void open() throws IOException {
+        File file = currentFile();
+        fileBytes = file.length();
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV && fileBytes == 0) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+            fileBytes = CSV_HEADER.length() + 1;
+        }
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        File oldest = file(maxFiles - 1);
+        if (oldest.exists() && !oldest.delete()) throw new IOException("Can't delete " + oldest);
+        for (int generation = maxFiles - 2; generation >= 0; generation--) {
+            File from = file(generation);
+            if (from.exists() && !from.renameTo(file(generation + 1))) throw new IOException("Can't rotate " + from);
+        }
+        open();
+    }
+
+    /**
+     * Stops the thread once it has written what is still queued and closed the file. Throws if that takes
+     * longer than a few seconds; the thread then finishes on its own, or is lost with the JVM.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing telemetry");
+        }
+        if (thread.isAlive()) {
+            throw new IOException("Telemetry writer is still busy after " + CLOSE_TIMEOUT_MILLIS + " ms");
+        }
+    }
+
+    /** A copy of the stats that matter, taken on the game thread. */
+    private static final class Row {
+        final long seed;
+        final String startReason;
+        final boolean hamsterWon;
+        final boolean aborted;
+        final String endReason;
+        final float duration;
+        final int frames;
+        final float p50;
+        final float p95;
+        final float p99;
+        final float max;
+        final int hamsterScore;
+        final int gradeScore;
+
+        Row(RoundStats stats) {
+            seed = stats.seed;
+            startReason = stats.startReason;
+            hamsterWon = stats.hamsterWon;
+            aborted = stats.aborted;
+            endReason = stats.endReason;
+            duration = stats.duration;
+            frames = stats.frames;
+            p50 = stats.frameTimePercentile(0.5f);
+            p95 = stats.frameTimePercentile(0.95f);
+            p99 = stats.frameTimePercentile(0.99f);
+            max = stats.maxFrameMillis();
+            hamsterScore = stats.hamsterScore;
+            gradeScore = stats.gradeScore;
+        }
+
+        String winner() {
+            return aborted ? "none" : hamsterWon ? "hamster" : "grade";
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package tatar.eljah.hamsters.trace;
+
+/** The generation of one round, ended once its layout is known. */
+public interface RoundSpan {
+    RoundSpan NONE = (seed, startReason) -> { };
+
+    void finish(long seed, String startReason);
+}
@@ -0,0 +1,8 @@
+package tatar.eljah.hamsters.trace;
+
+/** A timed section that began when it was handed out and ends with {@link #finish()}. */
+public interface Span {
+    Span NONE = () -> { };
+
+    void finish();
+}
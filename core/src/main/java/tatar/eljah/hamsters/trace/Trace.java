@@ -0,0 +1,12 @@
+package tatar.eljah.hamsters.trace;
+
+/**
+ * Where the game reports its phases to a profiler. Holds {@link TraceEvents#NONE} until a desktop or
+ * headless launcher installs the flight recorder events, so GWT and Android only pay an empty call.
+ */
+public final class Trace {
+    public static TraceEvents events = TraceEvents.NONE;
+
+    private Trace() {
+    }
+}
@@ -0,0 +1,44 @@
+package tatar.eljah.hamsters.trace;
+
+/**
+ * Timeline events for profilers, installed into {@link Trace}. {@code JfrTraceEvents} in the {@code jvm}
+ * module turns them into Java Flight Recorder events; elsewhere they do nothing.
+ */
+public interface TraceEvents {
+    TraceEvents NONE = new TraceEvents() {
+        @Override
+        public Span frameUpdate() {
+            return Span.NONE;
+        }
+
+        @Override
+        public Span frameRender() {
+            return Span.NONE;
+        }
+
+        @Override
+        public Span assetLoad(String path) {
+            return Span.NONE;
+        }
+
+        @Override
+        public RoundSpan roundGeneration() {
+            return RoundSpan.NONE;
+        }
+
+        @Override
+        public void sceneTransition(String from, String to, String reason) {
+        }
+    };
+
+    Span frameUpdate();
+
+    Span frameRender();
+
+    Span assetLoad(String path);
+
+    RoundSpan roundGeneration();
+
+    /** @param from null for the first scene */
+    void sceneTransition(String from, String to, String reason);
+}
@@ -0,0 +1,107 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.NumberUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+    private static final float TICK = 1f / 60f;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void dumpReplaysFromItsOldestKeyframe() {
+        GameWorld world = new GameWorld(31L);
+        world.setSceneLogging(false);
+        world.reset();
+        FlightRecorder recorder = new FlightRecorder(5, 60);
+        HamsterInput input = new HamsterInput();
+        int ticks = 1000;
+        for (int tick = 0; tick < ticks; tick++) {
+            input.clear();
+            input.left = tick % 80 < 30;
+            input.up = tick % 50 < 20;
+            recorder.beforeUpdate(world);
+            world.update(TICK, input);
+            assertFalse(recorder.afterUpdate(world, TICK, input));
+        }
+
+        ByteBuffer dump = ByteBuffer.wrap(recorder.getDumpBuffer(), 0, recorder.encode("unit test"));
+        assertEquals(FlightRecorder.MAGIC, dump.getInt());
+        byte[] reason = new byte[dump.getShort()];
+        dump.get(reason);
+        assertEquals("unit test", new String(reason));
+        dump.getLong();
+        int count = dump.getInt();
+        int keyframeCount = dump.getInt();
+        assertEquals(300, count);
+        assertEquals(5, keyframeCount);
+
+        int firstKeyframeTick = dump.getInt();
+        RoundSnapshot keyframe = new RoundSnapshot();
+        keyframe.read(dump);
+        assertEquals(720, firstKeyframeTick);
+        dump.position(dump.position() + (keyframeCount - 1) * (4 + RoundSnapshot.BYTES));
+
+        GameWorld replay = new GameWorld(0L);
+        replay.setSceneLogging(false);
+        replay.restore(keyframe);
+        int[] record = new int[FlightRecorder.RECORD_INTS];
+        int replayed = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < record.length; j++) record[j] = dump.getInt();
+            assertEquals(ticks - count + i, record[0]);
+            if (record[0] < firstKeyframeTick) continue;
+            input.setButtons(record[2]);
+            replay.update(NumberUtils.intBitsToFloat(record[1]), input);
+            assertEquals(NumberUtils.intBitsToFloat(record[3]), replay.getHamster().x, 0f);
+            assertEquals(NumberUtils.intBitsToFloat(record[4]), replay.getHamster().y, 0f);
+            assertEquals(NumberUtils.intBitsToFloat(record[5]), replay.getGrade().x, 0f);
+            replayed++;
+        }
+        assertEquals(ticks - firstKeyframeTick, replayed);
+        assertFalse(dump.hasRemaining());
+    }
+
+    @Test
+    public void hamsterInsideABlockIsReportedOnce() {
+        GameWorld world = new GameWorld(2L);
+        world.setSceneLogging(false);
+        world.reset();
+        FlightRecorder recorder = new FlightRecorder(1, 60);
+        HamsterInput input = new HamsterInput();
+        Rectangle block = world.getBlocks().first();
+        world.getHamster().setPosition(block.x + 10, block.y + 10);
+
+        assertTrue(recorder.afterUpdate(world, TICK, input));
+        assertEquals("hamster inside block at " + block.x + "," + block.y, recorder.getLastAnomaly());
+        assertFalse("still the same anomaly", recorder.afterUpdate(world, TICK, input));
+    }
+
+    @Test
+    public void onlyTheNewestDumpsAreKept() throws Exception {
+        FileHandle directory = new FileHandle(folder.getRoot());
+        for (int i = 0; i < 5; i++) {
+            File dump = new File(folder.getRoot(), "anomaly-" + i + ".hfr");
+            assertTrue(dump.createNewFile());
+            assertTrue(dump.setLastModified(1_000_000L * (i + 1)));
+        }
+        assertTrue(new File(folder.getRoot(), "notes.txt").createNewFile());
+
+        FlightRecorder.deleteOldDumps(directory, 2);
+        assertFalse(directory.child("anomaly-2.hfr").exists());
+        assertTrue(directory.child("anomaly-3.hfr").exists());
+        assertTrue(directory.child("anomaly-4.hfr").exists());
+        assertEquals(2, directory.list(".hfr").length);
+        assertTrue("other files are left alone", directory.child("notes.txt").exists());
+    }
+}
@@ -0,0 +1,42 @@
+package tatar.eljah.hamsters;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameIntervalsTest {
+    @Test
+    public void drawnFramesBecomeTheRoundsFrameTimes() {
+        GameWorld world = new GameWorld(4L);
+        world.setSceneLogging(false);
+        world.setTicksAreFrames(false);
+        world.reset();
+        StringBuilder ended = new StringBuilder();
+        world.setRoundListener(stats -> ended.append(stats.frames).append(' ').append(stats.maxFrameMillis()));
+
+        FrameIntervals intervals = new FrameIntervals();
+        assertTrue(intervals.offer(0.010f));
+        assertTrue(intervals.offer(0.050f));
+        assertTrue(intervals.offer(0.020f));
+        assertEquals(0.050f, intervals.drainTo(world), 0f);
+        world.update(1f / 60f, new HamsterInput());
+        assertEquals("nothing drawn since", 0f, intervals.drainTo(world), 0f);
+
+        world.reset("check");
+        assertEquals("3 50.0", ended.toString());
+    }
+
+    @Test
+    public void fullQueueDropsFramesUntilDrained() {
+        GameWorld world = new GameWorld(4L);
+        world.setSceneLogging(false);
+        world.reset();
+        FrameIntervals intervals = new FrameIntervals();
+        for (int i = 0; i < FrameIntervals.CAPACITY; i++) {
+            assertTrue(intervals.offer(0.016f));
+        }
+        assertFalse(intervals.offer(0.016f));
+        intervals.drainTo(world);
+        assertTrue(intervals.offer(0.016f));
+    }
+}
@@ -0,0 +1,123 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GameWorldTest {
+    private static final float TICK = 1f / 60f;
+
+    @Test
+    public void idleRoundAutoWinsAndRestartsWithoutRendering() {
+        GameWorld world = new GameWorld();
+        HamsterInput input = new HamsterInput();
+        world.reset("unit test start");
+        assertEquals(Scene.GAMEPLAY, world.getCurrentScene());
+
+        int ticks = 0;
+        while (!world.isGameOver() && ticks < 600) {
+            world.update(TICK, input);
+            ticks++;
+        }
+        assertTrue("auto-win should end the round", world.isGameOver());
+        assertEquals(Scene.GAME_OVER, world.getCurrentScene());
+        assertEquals(1, world.getHamsterScore());
+
+        while (world.isGameOver() && ticks < 600) {
+            world.update(TICK, input);
+            ticks++;
+        }
+        assertFalse("game over scene should time out into a new round", world.isGameOver());
+        assertEquals(Scene.GAMEPLAY, world.getCurrentScene());
+    }
+
+    @Test
+    public void hamsterStaysInsideTheArena() {
+        GameWorld world = new GameWorld();
+        HamsterInput input = new HamsterInput();
+        world.reset("unit test start");
+        input.left = true;
+        input.down = true;
+        for (int i = 0; i < 40 && !world.isGameOver(); i++) {
+            world.update(TICK, input);
+            assertTrue(world.getHamster().x >= 0);
+            assertTrue(world.getHamster().y >= 0);
+        }
+    }
+
+    @Test
+    public void resetReusesRoundObjectsAndRecyclesBlocks() {
+        GameWorld world = new GameWorld(42L);
+        world.reset("unit test start");
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        boolean[][] grid = world.getGrid();
+        Vector2 direction = world.getGradeDirection();
+        Rectangle firstBlock = world.getBlocks().first();
+
+        for (int i = 0; i < 50; i++) {
+            world.reset();
+            assertSame(hamster, world.getHamster());
+            assertSame(grade, world.getGrade());
+            assertSame(grid, world.getGrid());
+            assertSame(direction, world.getGradeDirection());
+            assertEquals(GameWorld.BLOCK_COUNT, world.getBlocks().size);
+            assertEquals(GameWorld.BLOCK_COUNT, countOccupied(grid));
+        }
+        assertTrue("blocks should come back from the pool",
+                world.getBlocks().contains(firstBlock, true) || world.getRound().getFreeBlockCount() > 0);
+    }
+
+    @Test
+    public void sameSeedGivesSameLayouts() {
+        GameWorld a = new GameWorld(7L);
+        GameWorld b = new GameWorld(7L);
+        for (int i = 0; i < 20; i++) {
+            a.reset();
+            b.reset();
+            assertEquals(a.getRoundSeed(), b.getRoundSeed());
+            assertEquals(a.getGrade(), b.getGrade());
+            assertEquals(a.getGradeDirection(), b.getGradeDirection());
+        }
+    }
+
+    @Test
+    public void steeredGradeWinsBySurviving() {
+        GameWorld world = new GameWorld(3L);
+        world.setSceneLogging(false);
+        world.reset();
+        HamsterInput hamster = new HamsterInput();
+        HamsterInput grade = new HamsterInput();
+        world.update(TICK, hamster, grade);
+        assertTrue("an idle steered grade stays put", world.getGradeDirection().isZero());
+
+        int ticks = 0;
+        while (!world.isGameOver() && ticks < 60 * 60) {
+            world.update(TICK, hamster, grade);
+            ticks++;
+        }
+        assertTrue(world.isGameOver());
+        assertFalse(world.isHamsterWin());
+        assertEquals(1, world.getGradeScore());
+        assertTrue("no auto-win while the grade is steered", ticks > 60 * 20);
+    }
+
+    @Test
+    public void sceneTransitions() {
+        assertTrue(Scene.GAMEPLAY.canMoveTo(Scene.GAMEPLAY));
+        assertTrue(Scene.GAMEPLAY.canMoveTo(Scene.GAME_OVER));
+        assertTrue(Scene.GAME_OVER.canMoveTo(Scene.GAMEPLAY));
+        assertFalse(Scene.GAME_OVER.canMoveTo(Scene.GAME_OVER));
+    }
+
+    private static int countOccupied(boolean[][] grid) {
+        int count = 0;
+        for (boolean[] column : grid) {
+            for (boolean cell : column) {
+                if (cell) count++;
+            }
+        }
+        return count;
+    }
+}
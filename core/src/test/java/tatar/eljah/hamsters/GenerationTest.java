@@ -64,4 +64,42 @@ public class GenerationTest {
             assertTrue("Run " + i + " no access above grade", pathExists(grid, hx, hy, gx, gy));
         }
     }
+
+    @Test
+    public void denseLayoutsKeepEveryFreeCellReachable() {
+        int blocks = GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT / 2;
+        GameWorld world = new GameWorld(9L);
+        world.setSceneLogging(false);
+        world.setBlockCount(blocks);
+        for (int i = 0; i < 500; i++) {
+            world.reset("dense");
+            assertEquals("Run " + i + " block count", blocks, world.getBlocks().size);
+            boolean[][] grid = world.getGrid();
+            int hx = (int) (world.getHamster().x / 64);
+            int hy = (int) (world.getHamster().y / 64);
+            for (int x = 0; x < grid.length; x++) {
+                for (int y = 0; y < grid[x].length; y++) {
+                    if (!grid[x][y]) assertTrue("Run " + i + " cut off " + x + "," + y, pathExists(grid, hx, hy, x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void noBlockOrGradeOverlapsTheSpawn() {
+        GameWorld world = new GameWorld(5L);
+        world.setSceneLogging(false);
+        world.setBlockCount(GameWorld.MAX_BLOCK_COUNT);
+        Rectangle spawn = new Rectangle(GameWorld.SPAWN_X, GameWorld.SPAWN_Y, GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+        FlightRecorder recorder = new FlightRecorder(1, 60);
+        HamsterInput input = new HamsterInput();
+        for (int i = 0; i < 200; i++) {
+            world.reset("spawn");
+            for (Rectangle block : world.getBlocks()) {
+                assertFalse("Run " + i + " block at " + block.x + "," + block.y, block.overlaps(spawn));
+            }
+            assertFalse("Run " + i + " grade on the spawn", world.getGrade().overlaps(spawn));
+            assertFalse("Run " + i + " " + recorder.getLastAnomaly(), recorder.afterUpdate(world, 1f / 60f, input));
+        }
+    }
 }
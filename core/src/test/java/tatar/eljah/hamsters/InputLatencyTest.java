@@ -0,0 +1,52 @@
+package tatar.eljah.hamsters;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InputLatencyTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void changeIsTimedFromItsFirstEvent() {
+        InputLatency latency = new InputLatency();
+        latency.event(100);
+        latency.event(200);
+        assertEquals(100, latency.takeEventTime());
+
+        // Events that didn't change the buttons mustn't date a later change.
+        latency.event(300);
+        latency.discardEvents();
+        latency.event(400);
+        assertEquals(400, latency.takeEventTime());
+    }
+
+    @Test
+    public void percentilesUseNearestRankOverTheLastSamples() {
+        InputLatency latency = new InputLatency();
+        assertEquals(0, latency.percentileNanos(0.5f));
+        for (int i = 1; i <= 100; i++) {
+            latency.record(i * MS);
+        }
+        assertEquals(50 * MS, latency.percentileNanos(0.5f));
+        assertEquals(95 * MS, latency.percentileNanos(0.95f));
+        assertEquals(99 * MS, latency.percentileNanos(0.99f));
+        assertEquals("Input latency p50 50 p95 95 p99 99 ms (100)", latency.getSummary());
+
+        // Older samples drop out once the window is full.
+        for (int i = 0; i < InputLatency.SAMPLES; i++) {
+            latency.record(7 * MS);
+        }
+        assertEquals(InputLatency.SAMPLES, latency.getSampleCount());
+        assertEquals(7 * MS, latency.percentileNanos(0.99f));
+    }
+
+    @Test
+    public void controllerButtonPressIsTakenOnce() {
+        InputLatency latency = new InputLatency();
+        latency.getControllerListener().buttonDown(null, 0);
+        assertTrue(latency.takeControllerButtonPress());
+        assertFalse(latency.takeControllerButtonPress());
+        assertTrue(latency.takeEventTime() > 0);
+    }
+}
@@ -14,7 +14,6 @@ import com.badlogic.gdx.Net;
 import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.utils.Clipboard;
 import com.badlogic.gdx.LifecycleListener;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -51,9 +50,7 @@ public class MainSceneTransitionTest {
             Main main = new Main();
             main.resetGameWithReason("unit test start");
 
-            Method triggerGameOver = Main.class.getDeclaredMethod("triggerGameOver", boolean.class, String.class);
-            triggerGameOver.setAccessible(true);
-            triggerGameOver.invoke(main, true, "unit test win");
+            main.getWorld().triggerGameOver(true, "unit test win");
 
             List<String> logs = app.getLogs();
 
@@ -0,0 +1,132 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link GL20} that renders nothing and counts what it was asked to do, so draw-call and texture
+ * bind budgets can be checked under JUnit without a GPU. Object names are handed out in sequence,
+ * shaders always compile and link, and every query answers zero except the maximum texture size.
+ */
+final class RecordingGL20 {
+    private static final int MAX_TEXTURE_SIZE = 4096;
+
+    final GL20 gl;
+    private final Map<String, Integer> calls = new HashMap<>();
+    private final int[] boundTextures = new int[32];
+    private int activeUnit;
+    private int program;
+    private int nextName = 1;
+    private int drawCalls;
+    private int verticesDrawn;
+    private int textureBinds;
+    private int programSwitches;
+    private final Color clearColor = new Color();
+
+    RecordingGL20() {
+        gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                (proxy, method, args) -> record(method.getName(), args, method.getReturnType()));
+    }
+
+    /** Forgets the counts, keeping the GL state (bound textures, program) as it is. */
+    void reset() {
+        calls.clear();
+        drawCalls = 0;
+        verticesDrawn = 0;
+        textureBinds = 0;
+        programSwitches = 0;
+    }
+
+    int getDrawCalls() {
+        return drawCalls;
+    }
+
+    int getVerticesDrawn() {
+        return verticesDrawn;
+    }
+
+    /** Binds that changed the texture on a unit; rebinding the bound texture isn't counted. */
+    int getTextureBinds() {
+        return textureBinds;
+    }
+
+    int getProgramSwitches() {
+        return programSwitches;
+    }
+
+    Color getClearColor() {
+        return clearColor;
+    }
+
+    int getCalls(String method) {
+        Integer count = calls.get(method);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public String toString() {
+        return "draw calls " + drawCalls + ", vertices " + verticesDrawn + ", texture binds " + textureBinds
+                + ", program switches " + programSwitches;
+    }
+
+    private Object record(String name, Object[] args, Class<?> returnType) {
+        calls.merge(name, 1, Integer::sum);
+        switch (name) {
+            case "glDrawArrays":
+                drawCalls++;
+                verticesDrawn += (Integer) args[2];
+                return null;
+            case "glDrawElements":
+                drawCalls++;
+                verticesDrawn += (Integer) args[1];
+                return null;
+            case "glClearColor":
+                clearColor.set((Float) args[0], (Float) args[1], (Float) args[2], (Float) args[3]);
+                return null;
+            case "glActiveTexture":
+                activeUnit = (Integer) args[0] - GL20.GL_TEXTURE0;
+                return null;
+            case "glBindTexture":
+                int texture = (Integer) args[1];
+                if (boundTextures[activeUnit] != texture) {
+                    boundTextures[activeUnit] = texture;
+                    textureBinds++;
+                }
+                return null;
+            case "glUseProgram":
+                if (program != (Integer) args[0]) {
+                    program = (Integer) args[0];
+                    programSwitches++;
+                }
+                return null;
+            case "glGenTexture":
+            case "glGenBuffer":
+            case "glGenFramebuffer":
+            case "glGenRenderbuffer":
+            case "glCreateProgram":
+            case "glCreateShader":
+                return nextName++;
+            case "glGetShaderiv":
+            case "glGetProgramiv":
+                int parameter = (Integer) args[1];
+                ((IntBuffer) args[2]).put(0, parameter == GL20.GL_COMPILE_STATUS || parameter == GL20.GL_LINK_STATUS ? 1 : 0);
+                return null;
+            case "glGetIntegerv":
+                ((IntBuffer) args[1]).put(0, (Integer) args[0] == GL20.GL_MAX_TEXTURE_SIZE ? MAX_TEXTURE_SIZE : 0);
+                return null;
+            case "glCheckFramebufferStatus":
+                return GL20.GL_FRAMEBUFFER_COMPLETE;
+            default:
+                if (returnType == int.class) return 0;
+                if (returnType == boolean.class) return false;
+                if (returnType == float.class) return 0f;
+                if (returnType == String.class) return "";
+                return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.ApplicationLogger;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.controllers.ControllerManagerStub;
+import com.badlogic.gdx.controllers.Controllers;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.Clipboard;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Draws real frames into {@link RecordingGL20} and holds them to draw-call and texture bind budgets,
+ * so a change that breaks sprite batching fails here instead of on a phone. Budgets are today's
+ * counts: tighten them when a change saves calls, and only raise them on purpose.
+ */
+public class RenderBudgetTest {
+    // Background, sprites and font share the GameAtlas texture, so a frame is one batch flush.
+    private static final int GAMEPLAY_DRAW_CALLS = 1;
+    private static final int GAMEPLAY_TEXTURE_BINDS = 1;
+    private static final int GAME_OVER_DRAW_CALLS = 1;
+    private static final int GAME_OVER_TEXTURE_BINDS = 1;
+    private static final int CONTROLS_DRAW_CALLS = 1;
+    private static final int CONTROLS_TEXTURE_BINDS = 1;
+
+    private Application previousApp;
+    private Graphics previousGraphics;
+    private Files previousFiles;
+    private Input previousInput;
+    private GL20 previousGl;
+    private RecordingGL20 recording;
+    private Main main;
+
+    @BeforeClass
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+        // The desktop controller backend may be on the classpath; the tests don't need a gamepad.
+        Controllers.preferredManager = ControllerManagerStub.class.getName();
+    }
+
+    @AfterClass
+    public static void restoreControllerManager() {
+        Controllers.preferredManager = null;
+    }
+
+    @Before
+    public void installRecordingGl() {
+        previousApp = Gdx.app;
+        previousGraphics = Gdx.graphics;
+        previousFiles = Gdx.files;
+        previousInput = Gdx.input;
+        previousGl = Gdx.gl;
+        recording = new RecordingGL20();
+        Gdx.graphics = new MockGraphics();
+        Gdx.files = new HeadlessFiles();
+        Gdx.input = new MockInput();
+        Gdx.gl = Gdx.gl20 = recording.gl;
+    }
+
+    @After
+    public void restore() {
+        if (main != null) main.dispose();
+        Gdx.app = previousApp;
+        Gdx.graphics = previousGraphics;
+        Gdx.files = previousFiles;
+        Gdx.input = previousInput;
+        Gdx.gl = Gdx.gl20 = previousGl;
+    }
+
+    private Main startMain(Application.ApplicationType type) {
+        return startMain(type, null);
+    }
+
+    private Main startMain(Application.ApplicationType type, SimulationLoop loop) {
+        Gdx.app = new StubApplication(type);
+        main = new Main();
+        main.setSimulationLoop(loop);
+        main.create();
+        main.render();
+        recording.reset();
+        return main;
+    }
+
+    @Test
+    public void gameplayFrameStaysWithinBudget() {
+        startMain(Application.ApplicationType.Desktop);
+        main.render();
+        assertFalse(main.getWorld().isGameOver());
+        assertTrue(recording.toString(), recording.getDrawCalls() <= GAMEPLAY_DRAW_CALLS);
+        assertTrue(recording.toString(), recording.getTextureBinds() <= GAMEPLAY_TEXTURE_BINDS);
+        assertEquals(recording.toString(), 0, recording.getProgramSwitches());
+    }
+
+    @Test
+    public void gameOverFrameStaysWithinBudget() {
+        startMain(Application.ApplicationType.Desktop);
+        main.getWorld().triggerGameOver(true, "render budget");
+        main.render();
+        assertTrue(recording.toString(), recording.getDrawCalls() <= GAME_OVER_DRAW_CALLS);
+        assertTrue(recording.toString(), recording.getTextureBinds() <= GAME_OVER_TEXTURE_BINDS);
+    }
+
+    @Test
+    public void renderDrawsOnlyTicksTheSimulationLoopFinished() {
+        ManualLoop loop = new ManualLoop();
+        startMain(Application.ApplicationType.Desktop, loop);
+        assertNotNull(loop.tick);
+        main.getWorld().triggerGameOver(true, "render budget");
+        main.render();
+        // The round is over, but no tick has published that yet, so the gameplay frame is drawn again.
+        assertEquals(Color.BLACK, recording.getClearColor());
+        loop.tick.run();
+        main.render();
+        assertEquals(Color.RED, recording.getClearColor());
+        main.dispose();
+        main = null;
+        assertTrue(loop.stopped);
+    }
+
+    @Test
+    public void inputTimeSurvivesTicksPublishedBeforeTheNextRender() {
+        Gdx.input = new MockInput() {
+            @Override
+            public boolean isKeyPressed(int key) {
+                return key == Input.Keys.LEFT;
+            }
+        };
+        ManualLoop loop = new ManualLoop();
+        startMain(Application.ApplicationType.Desktop, loop);
+        InputLatency latency = main.getInputLatency();
+        latency.keyDown(Input.Keys.LEFT);
+        main.render();
+        // Both ticks publish before the render thread takes a frame; the second must still carry the input.
+        loop.tick.run();
+        loop.tick.run();
+        main.render();
+        assertEquals(1, latency.getSampleCount());
+        loop.tick.run();
+        main.render();
+        assertEquals("timed once", 1, latency.getSampleCount());
+    }
+
+    @Test
+    public void onscreenControlsDrawInOneCall() {
+        Gdx.app = new StubApplication(Application.ApplicationType.Android);
+        OnscreenControlRenderer controls = new OnscreenControlRenderer();
+        recording.reset();
+        controls.render();
+        controls.dispose();
+        assertTrue(recording.toString(), recording.getDrawCalls() <= CONTROLS_DRAW_CALLS);
+        assertTrue(recording.toString(), recording.getTextureBinds() <= CONTROLS_TEXTURE_BINDS);
+    }
+
+    /** Runs ticks only when the test calls them. */
+    private static final class ManualLoop implements SimulationLoop {
+        Runnable tick;
+        boolean stopped;
+
+        @Override
+        public void start(Runnable tick) {
+            this.tick = tick;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+    }
+
+    private static final class StubApplication implements Application {
+        private final ApplicationType type;
+        private ApplicationLogger logger;
+
+        StubApplication(ApplicationType type) {
+            this.type = type;
+        }
+
+        @Override public ApplicationListener getApplicationListener() { return null; }
+        @Override public Graphics getGraphics() { return Gdx.graphics; }
+        @Override public Audio getAudio() { return null; }
+        @Override public Input getInput() { return Gdx.input; }
+        @Override public Files getFiles() { return Gdx.files; }
+        @Override public Net getNet() { return null; }
+        @Override public void log(String tag, String message) { }
+        @Override public void log(String tag, String message, Throwable exception) { }
+        @Override public void error(String tag, String message) { }
+        @Override public void error(String tag, String message, Throwable exception) { }
+        @Override public void debug(String tag, String message) { }
+        @Override public void debug(String tag, String message, Throwable exception) { }
+        @Override public void setLogLevel(int logLevel) { }
+        @Override public int getLogLevel() { return LOG_NONE; }
+        @Override public void setApplicationLogger(ApplicationLogger applicationLogger) { logger = applicationLogger; }
+        @Override public ApplicationLogger getApplicationLogger() { return logger; }
+        @Override public ApplicationType getType() { return type; }
+        @Override public int getVersion() { return 0; }
+        @Override public long getJavaHeap() { return 0; }
+        @Override public long getNativeHeap() { return 0; }
+        @Override public Preferences getPreferences(String name) { return null; }
+        @Override public Clipboard getClipboard() { return null; }
+        @Override public void postRunnable(Runnable runnable) { runnable.run(); }
+        @Override public void exit() { }
+        @Override public void addLifecycleListener(LifecycleListener listener) { }
+        @Override public void removeLifecycleListener(LifecycleListener listener) { }
+    }
+}
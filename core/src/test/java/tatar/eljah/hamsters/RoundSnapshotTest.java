@@ -0,0 +1,232 @@
+package tatar.eljah.hamsters;
+
+import com.badlogic.gdx.files.FileHandle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class RoundSnapshotTest {
+    private static final float TICK = 1f / 60f;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoringReplaysTheSameFuture() {
+        GameWorld world = new GameWorld(21L);
+        world.setSceneLogging(false);
+        world.reset();
+        HamsterInput input = new HamsterInput();
+        RoundSnapshot start = new RoundSnapshot();
+        RoundSnapshot first = new RoundSnapshot();
+        RoundSnapshot second = new RoundSnapshot();
+
+        world.save(start);
+        // Long enough for several auto-wins and new layouts, which exercises the random state too.
+        for (int tick = 0; tick < 600; tick++) {
+            input.right = tick % 90 < 45;
+            world.update(TICK, input);
+        }
+        world.save(first);
+        assertTrue(world.getHamsterScore() > 1);
+
+        world.restore(start);
+        for (int tick = 0; tick < 600; tick++) {
+            input.right = tick % 90 < 45;
+            world.update(TICK, input);
+        }
+        world.save(second);
+        assertTrue(first.sameState(second));
+        assertEquals(first.stateHash(), second.stateHash());
+    }
+
+    @Test
+    public void snapshotsSurviveTheWire() {
+        GameWorld world = new GameWorld(4L);
+        world.setSceneLogging(false);
+        world.reset();
+        RoundSnapshot sent = new RoundSnapshot();
+        RoundSnapshot received = new RoundSnapshot();
+        world.save(sent);
+        ByteBuffer buffer = ByteBuffer.allocate(RoundSnapshot.BYTES);
+        sent.write(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        received.read(buffer);
+        assertTrue(sent.sameState(received));
+
+        GameWorld copy = new GameWorld(99L);
+        copy.restore(received);
+        assertEquals(world.getHamster(), copy.getHamster());
+        assertEquals(world.getGrade(), copy.getGrade());
+        assertEquals(world.getBlocks().size, copy.getBlocks().size);
+        assertEquals(world.getCurrentScene(), copy.getCurrentScene());
+        for (int x = 0; x < GameWorld.GRID_WIDTH; x++) {
+            assertArrayEquals(world.getGrid()[x], copy.getGrid()[x]);
+        }
+    }
+
+    @Test
+    public void rollbackConvergesOnTheRemoteTruth() {
+        int latency = 5;
+        int ticks = 400;
+        GameWorld reference = new GameWorld(8L);
+        GameWorld local = new GameWorld(8L);
+        reference.setSceneLogging(false);
+        local.setSceneLogging(false);
+        reference.reset();
+        local.reset();
+        RollbackSession session = new RollbackSession(local, true, 16, TICK);
+        HamsterInput hamster = new HamsterInput();
+        HamsterInput grade = new HamsterInput();
+
+        for (int tick = 0; tick < ticks + latency; tick++) {
+            if (tick < ticks) {
+                hamsterInput(tick, hamster);
+                gradeInput(tick, grade);
+                reference.update(TICK, hamster, grade);
+                session.step(hamster);
+            }
+            int arrived = tick - latency;
+            if (arrived >= 0) {
+                gradeInput(arrived, grade);
+                session.confirmRemote(arrived, grade);
+            }
+        }
+
+        RoundSnapshot expected = new RoundSnapshot();
+        RoundSnapshot actual = new RoundSnapshot();
+        reference.save(expected);
+        local.save(actual);
+        assertTrue(expected.sameState(actual));
+        assertTrue("changing remote input should have forced corrections", session.getResimulatedTicks() > 0);
+    }
+
+    @Test
+    public void rollbackReportsEveryRoundOnce() {
+        int latency = 5;
+        int ticks = 4000;
+        GameWorld reference = new GameWorld(8L);
+        GameWorld local = new GameWorld(8L);
+        reference.setSceneLogging(false);
+        local.setSceneLogging(false);
+        // The stats object is reused for the next round, so the listeners have to copy what they check.
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        reference.setRoundListener(stats -> describe(stats, expected));
+        local.setRoundListener(stats -> describe(stats, actual));
+        reference.reset();
+        local.reset();
+        RollbackSession session = new RollbackSession(local, true, 16, TICK);
+        HamsterInput hamster = new HamsterInput();
+        HamsterInput grade = new HamsterInput();
+
+        for (int tick = 0; tick < ticks + latency; tick++) {
+            if (tick < ticks) {
+                hamsterInput(tick, hamster);
+                gradeInput(tick, grade);
+                reference.update(TICK, hamster, grade);
+                session.step(hamster);
+            }
+            int arrived = tick - latency;
+            if (arrived >= 0) {
+                gradeInput(arrived, grade);
+                session.confirmRemote(arrived, grade);
+            }
+        }
+
+        assertTrue("the run should span several rounds", reference.getHamsterScore() + reference.getGradeScore() > 1);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void savedFileResumesTheRound() throws Exception {
+        GameWorld world = new GameWorld(5L);
+        world.setSceneLogging(false);
+        world.reset();
+        HamsterInput input = new HamsterInput();
+        input.up = true;
+        for (int tick = 0; tick < 40; tick++) {
+            world.update(TICK, input);
+        }
+        RoundSnapshot saved = new RoundSnapshot();
+        world.save(saved);
+        FileHandle file = new FileHandle(new File(folder.getRoot(), "resume.sav"));
+        assertTrue(saved.save(file));
+        assertEquals(8 + RoundSnapshot.BYTES, file.length());
+
+        GameWorld resumed = new GameWorld(99L);
+        resumed.setSceneLogging(false);
+        resumed.reset();
+        RoundSnapshot loaded = new RoundSnapshot();
+        assertTrue(loaded.load(file));
+        resumed.resume(loaded, "resumed");
+        for (int tick = 0; tick < 120; tick++) {
+            world.update(TICK, input);
+            resumed.update(TICK, input);
+        }
+        RoundSnapshot expected = new RoundSnapshot();
+        RoundSnapshot actual = new RoundSnapshot();
+        world.save(expected);
+        resumed.save(actual);
+        assertTrue(expected.sameState(actual));
+    }
+
+    @Test
+    public void resumedRoundReportsItsSeedAndReason() {
+        GameWorld world = new GameWorld(6L);
+        world.setSceneLogging(false);
+        world.reset();
+        RoundSnapshot saved = new RoundSnapshot();
+        world.save(saved);
+
+        GameWorld resumed = new GameWorld(7L);
+        resumed.setSceneLogging(false);
+        resumed.reset();
+        // The stats object is reused for the next round, so the listener has to copy what it checks.
+        StringBuilder ended = new StringBuilder();
+        resumed.setRoundListener(stats -> ended.append(stats.seed).append(' ').append(stats.startReason)
+                .append(' ').append(stats.endReason).append(' ').append(stats.frames));
+        resumed.resume(saved, "resumed");
+        resumed.update(TICK, new HamsterInput());
+        resumed.reset("quit");
+        assertEquals(world.getRoundSeed() + " resumed quit 1", ended.toString());
+    }
+
+    @Test
+    public void loadRejectsForeignAndTruncatedFiles() throws Exception {
+        RoundSnapshot snapshot = new RoundSnapshot();
+        FileHandle missing = new FileHandle(new File(folder.getRoot(), "missing.sav"));
+        assertFalse(snapshot.load(missing));
+
+        FileHandle file = new FileHandle(new File(folder.getRoot(), "resume.sav"));
+        assertTrue(snapshot.save(file));
+        byte[] bytes = file.readBytes();
+        file.writeBytes(java.util.Arrays.copyOf(bytes, bytes.length - 4), false);
+        assertFalse(snapshot.load(file));
+        bytes[0] = 'X';
+        file.writeBytes(bytes, false);
+        assertFalse(snapshot.load(file));
+    }
+
+    private static void describe(RoundStats stats, StringBuilder out) {
+        out.append(stats.seed).append(' ').append(stats.endReason).append(' ').append(stats.frames).append('\n');
+    }
+
+    private static void hamsterInput(int tick, HamsterInput input) {
+        input.clear();
+        input.left = tick % 70 < 30;
+        input.up = tick % 50 > 25;
+    }
+
+    private static void gradeInput(int tick, HamsterInput input) {
+        input.clear();
+        input.right = tick % 40 < 20;
+        input.down = tick % 33 < 10;
+    }
+}
@@ -0,0 +1,74 @@
+package tatar.eljah.hamsters;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TripleBufferTest {
+    private static final class Pair {
+        long first;
+        long second;
+    }
+
+    @Test
+    public void readerTakesOnlyTheNewestValue() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(new int[1], new int[1], new int[1]);
+        assertFalse(buffer.update());
+
+        buffer.back()[0] = 1;
+        buffer.publish();
+        buffer.back()[0] = 2;
+        buffer.publish();
+        assertTrue(buffer.update());
+        assertEquals(2, buffer.front()[0]);
+        assertFalse(buffer.update());
+        assertEquals(2, buffer.front()[0]);
+
+        buffer.back()[0] = 3;
+        buffer.publish();
+        assertTrue(buffer.update());
+        assertEquals(3, buffer.front()[0]);
+    }
+
+    @Test
+    public void readerNeverSeesAHalfWrittenValue() throws Exception {
+        TripleBuffer<Pair> buffer = new TripleBuffer<>(new Pair(), new Pair(), new Pair());
+        long values = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (long value = 1; value <= values; value++) {
+                Pair pair = buffer.back();
+                pair.first = value;
+                pair.second = value;
+                buffer.publish();
+            }
+        });
+        writer.start();
+        long last = 0;
+        int taken = 0;
+        while (last < values) {
+            if (!buffer.update()) continue;
+            Pair pair = buffer.front();
+            assertEquals(pair.first, pair.second);
+            assertTrue("values must never go backwards", pair.first > last);
+            last = pair.first;
+            taken++;
+        }
+        writer.join();
+        assertTrue(taken > 0);
+    }
+
+    @Test
+    public void simulationThreadStopsTickingWhenStopped() throws Exception {
+        AtomicInteger ticks = new AtomicInteger();
+        SimulationThread thread = new SimulationThread();
+        thread.start(ticks::incrementAndGet);
+        Thread.sleep(100);
+        thread.stop();
+        int stopped = ticks.get();
+        assertTrue(stopped > 0);
+        Thread.sleep(50);
+        assertEquals(stopped, ticks.get());
+    }
+}
@@ -0,0 +1,51 @@
+package tatar.eljah.hamsters.bot;
+
+import org.junit.Test;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import static org.junit.Assert.*;
+
+public class HamsterBotTest {
+    private static final float TICK = 1f / 60f;
+
+    @Test
+    public void catchesAStandingGradeAroundTheBlocks() {
+        GameWorld world = new GameWorld(21L);
+        world.setSceneLogging(false);
+        HamsterBot bot = new HamsterBot(world);
+        HamsterInput hamster = new HamsterInput();
+        // A steered grade without input stands still and wins after surviving 30 s.
+        HamsterInput grade = new HamsterInput();
+        for (int round = 0; round < 50; round++) {
+            world.reset("bot test");
+            int searches = bot.getSearches();
+            int ticks = 0;
+            while (!world.isGameOver()) {
+                bot.steer(hamster);
+                world.update(TICK, hamster, grade);
+                ticks++;
+            }
+            assertTrue("round " + round + " lost after " + ticks + " ticks", world.isHamsterWin());
+            assertEquals("one search per round while the grade stays put", searches + 1, bot.getSearches());
+        }
+    }
+
+    @Test
+    public void restartsFinishedRounds() {
+        GameWorld world = new GameWorld(4L);
+        world.setSceneLogging(false);
+        world.reset("bot test");
+        HamsterBot bot = new HamsterBot(world);
+        HamsterInput input = new HamsterInput();
+        int rounds = 0;
+        for (int tick = 0; tick < 60 * 60; tick++) {
+            boolean wasOver = world.isGameOver();
+            bot.steer(input);
+            assertEquals(wasOver, input.restart);
+            world.update(TICK, input);
+            if (wasOver && !world.isGameOver()) rounds++;
+        }
+        assertTrue(rounds > 10);
+    }
+}
@@ -0,0 +1,78 @@
+package tatar.eljah.hamsters.chunks;
+
+import com.badlogic.gdx.math.Rectangle;
+import org.junit.Test;
+import tatar.eljah.hamsters.HamsterInput;
+
+import static org.junit.Assert.*;
+
+public class ChunkCacheTest {
+    @Test
+    public void evictedChunksComeBackIdentical() {
+        ChunkCache cache = new ChunkCache(77L, 4);
+        boolean[] first = cells(cache.get(3, -2));
+        for (int x = 0; x < 20; x++) cache.get(100 + x, 0);
+        assertEquals(4, cache.size());
+        assertArrayEquals(first, cells(cache.get(3, -2)));
+        assertFalse(java.util.Arrays.equals(first, cells(cache.get(4, -2))));
+    }
+
+    @Test
+    public void everyFreeCellOfAChunkIsConnected() {
+        ChunkCache cache = new ChunkCache(5L, 1);
+        for (int i = 0; i < 200; i++) {
+            Chunk chunk = cache.get(i * 7 - 300, i * 13 - 1000);
+            assertTrue(chunk.getBlockCount() > 0);
+            boolean[] seen = new boolean[Chunk.SIZE * Chunk.SIZE];
+            int[] queue = new int[Chunk.SIZE * Chunk.SIZE];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = 0; // the corner is on the free outer ring
+            seen[0] = true;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell / Chunk.SIZE;
+                int y = cell % Chunk.SIZE;
+                int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+                for (int[] step : steps) {
+                    int nx = x + step[0];
+                    int ny = y + step[1];
+                    if (nx < 0 || ny < 0 || nx >= Chunk.SIZE || ny >= Chunk.SIZE) continue;
+                    int next = nx * Chunk.SIZE + ny;
+                    if (!seen[next] && !chunk.isBlocked(nx, ny)) {
+                        seen[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            assertEquals(Chunk.SIZE * Chunk.SIZE - chunk.getBlockCount(), tail);
+        }
+    }
+
+    @Test
+    public void travellingFarKeepsTheCacheBounded() {
+        ChunkedWorld world = new ChunkedWorld(11L);
+        HamsterInput input = new HamsterInput();
+        Rectangle hamster = world.getHamster();
+        // The bottom row of every chunk is free, so this is a straight corridor to the left.
+        hamster.y = 0;
+        input.left = true;
+        for (int tick = 0; tick < 60 * 600; tick++) {
+            world.update(1f / 60f, input);
+            assertFalse(world.overlapsBlock(hamster));
+        }
+        ChunkCache chunks = world.getChunks();
+        assertTrue("travelled " + hamster.x, hamster.x < -ChunkedWorld.CHUNK_PIXELS * 50);
+        assertTrue(chunks.size() <= chunks.getCapacity());
+        assertEquals(chunks.getCapacity(), chunks.getChunkObjects());
+        assertTrue(chunks.getEvictions() > 0);
+    }
+
+    private static boolean[] cells(Chunk chunk) {
+        boolean[] cells = new boolean[Chunk.SIZE * Chunk.SIZE];
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int y = 0; y < Chunk.SIZE; y++) cells[x * Chunk.SIZE + y] = chunk.isBlocked(x, y);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,81 @@
+package tatar.eljah.hamsters.levels;
+
+import com.badlogic.gdx.math.Rectangle;
+import org.junit.Test;
+import tatar.eljah.hamsters.GameWorld;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class LevelPackTest {
+
+    private static LevelRecord record(Difficulty band, int hamsterCell, int gradeCell, int... blocked) {
+        LevelRecord record = new LevelRecord();
+        for (int cell : blocked) {
+            record.setBlocked(cell, true);
+        }
+        record.hamsterCell = hamsterCell;
+        record.gradeCell = gradeCell;
+        record.pathLength = 3;
+        record.abovePathLength = 5;
+        record.reachableCells = 40;
+        record.blockCount = blocked.length;
+        record.band = band;
+        return record;
+    }
+
+    private static LevelPack pack(LevelRecord... records) {
+        ByteBuffer buffer = ByteBuffer.allocate(LevelPack.encodedSize(records.length));
+        LevelPack.write(records, buffer);
+        buffer.flip();
+        return LevelPack.wrap(buffer);
+    }
+
+    @Test
+    public void recordsSurviveTheRoundTrip() {
+        LevelRecord easy = record(Difficulty.EASY, LevelRecord.cell(5, 4), LevelRecord.cell(7, 4), LevelRecord.cell(0, 0));
+        LevelRecord hard = record(Difficulty.HARD, LevelRecord.cell(1, 1), LevelRecord.cell(11, 8),
+                LevelRecord.cell(2, 2), LevelRecord.cell(12, 9));
+        LevelPack pack = pack(easy, hard);
+
+        assertEquals(2, pack.size());
+        assertEquals(1, pack.bandSize(Difficulty.EASY));
+        assertEquals(0, pack.bandSize(Difficulty.MEDIUM));
+        assertEquals(1, pack.bandSize(Difficulty.HARD));
+
+        LevelRecord read = new LevelRecord();
+        pack.read(pack.index(Difficulty.HARD, 0), read);
+        assertArrayEquals(hard.occupancy, read.occupancy);
+        assertEquals(hard.hamsterCell, read.hamsterCell);
+        assertEquals(hard.gradeCell, read.gradeCell);
+        assertEquals(hard.score(), read.score());
+        assertEquals(Difficulty.HARD, read.band);
+        assertTrue(read.isBlocked(LevelRecord.cell(12, 9)));
+        assertFalse(read.isBlocked(LevelRecord.cell(11, 8)));
+    }
+
+    @Test
+    public void worldResetsIntoAPackedLevel() {
+        int gradeCell = LevelRecord.cell(9, 3);
+        int spawnCell = LevelRecord.cell(GameWorld.SPAWN_X / GameWorld.CELL_SIZE,
+                GameWorld.SPAWN_Y / GameWorld.CELL_SIZE);
+        LevelPack pack = pack(record(Difficulty.MEDIUM, spawnCell, gradeCell, LevelRecord.cell(3, 3), LevelRecord.cell(10, 7)));
+
+        GameWorld world = new GameWorld(42L);
+        world.setSceneLogging(false);
+        world.setLevelPack(pack, Difficulty.MEDIUM);
+        world.reset();
+
+        boolean[][] grid = world.getGrid();
+        assertTrue(grid[3][3]);
+        assertTrue(grid[10][7]);
+        assertFalse(grid[4][4]);
+        assertEquals(2, world.getBlocks().size);
+        Rectangle grade = world.getGrade();
+        assertEquals(9 * GameWorld.CELL_SIZE, grade.x, 0f);
+        assertEquals(3 * GameWorld.CELL_SIZE, grade.y, 0f);
+        assertEquals(GameWorld.SPAWN_X, world.getHamster().x, 0f);
+        assertEquals(GameWorld.SPAWN_Y, world.getHamster().y, 0f);
+    }
+}
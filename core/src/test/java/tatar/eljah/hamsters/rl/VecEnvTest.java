@@ -0,0 +1,69 @@
+package tatar.eljah.hamsters.rl;
+
+import org.junit.Test;
+import tatar.eljah.hamsters.GameWorld;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class VecEnvTest {
+    private static final int ENVS = 200;
+
+    @Test
+    public void parallelStepsMatchSequentialOnes() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            VecEnv a = new VecEnv(ENVS, 3L, single);
+            VecEnv b = new VecEnv(ENVS, 3L, many);
+            float[] obsA = new float[ENVS * VecEnv.OBSERVATION_SIZE];
+            FloatBuffer obsB = ByteBuffer.allocateDirect(obsA.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            float[] rewardsA = new float[ENVS];
+            float[] rewardsB = new float[ENVS];
+            boolean[] donesA = new boolean[ENVS];
+            boolean[] donesB = new boolean[ENVS];
+            int[] actions = new int[ENVS];
+            a.reset(obsA);
+            b.reset(obsB);
+
+            int episodes = 0;
+            for (int step = 0; step < 120; step++) {
+                for (int i = 0; i < ENVS; i++) actions[i] = (i + step / 10) % VecEnv.ACTION_COUNT;
+                a.step(actions, obsA, rewardsA, donesA);
+                b.step(actions, obsB, rewardsB, donesB);
+                assertArrayEquals(rewardsA, rewardsB, 0f);
+                for (int i = 0; i < ENVS; i++) {
+                    assertEquals(donesA[i], donesB[i]);
+                    if (donesA[i]) episodes++;
+                }
+                for (int i = 0; i < obsA.length; i++) {
+                    assertEquals(obsA[i], obsB.get(i), 0f);
+                }
+            }
+            assertTrue("two seconds of play should end at least one round per environment", episodes >= ENVS);
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void observationsDescribeTheWorld() {
+        VecEnv env = new VecEnv(2, 11L);
+        float[] obs = new float[2 * VecEnv.OBSERVATION_SIZE];
+        env.reset(obs);
+        int blocks = 0;
+        for (int i = 0; i < VecEnv.GRID_CELLS; i++) {
+            float value = obs[VecEnv.OBSERVATION_SIZE + i];
+            assertTrue(value == 0f || value == 1f);
+            if (value == 1f) blocks++;
+        }
+        assertTrue(blocks > 0);
+        float hamsterX = obs[VecEnv.OBSERVATION_SIZE + VecEnv.GRID_CELLS];
+        assertEquals((float) GameWorld.SPAWN_X / GameWorld.WORLD_WIDTH, hamsterX, 1e-6f);
+    }
+}
@@ -0,0 +1,102 @@
+package tatar.eljah.hamsters.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TelemetryWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int play(GameWorld world, int ticks) {
+        HamsterInput input = new HamsterInput();
+        world.reset("telemetry test");
+        for (int tick = 0; tick < ticks; tick++) {
+            world.update(1f / 60f, input);
+        }
+        return world.getHamsterScore() + world.getGradeScore();
+    }
+
+    @Test
+    public void everyRoundBecomesOneJsonLine() throws IOException {
+        File directory = folder.newFolder();
+        GameWorld world = new GameWorld(1L);
+        world.setSceneLogging(false);
+        int rounds;
+        try (TelemetryWriter writer = new TelemetryWriter(directory, "rounds", TelemetryWriter.Format.NDJSON, 1 << 20, 3)) {
+            world.setRoundListener(writer);
+            rounds = play(world, 3000);
+        }
+        List<String> lines = Files.readAllLines(new File(directory, "rounds.ndjson").toPath(), StandardCharsets.UTF_8);
+        assertEquals(rounds, lines.size());
+        String first = lines.get(0);
+        assertTrue(first, first.startsWith("{\"seed\":"));
+        assertTrue(first, first.contains("\"startReason\":\"telemetry test\""));
+        assertTrue(first, first.contains("\"endReason\":\"auto-win\""));
+        assertTrue(first, first.contains("\"frameP50Ms\":16.667"));
+        assertTrue(first, first.endsWith("}"));
+    }
+
+    @Test
+    public void filesRotateBySize() throws IOException {
+        File directory = folder.newFolder();
+        GameWorld world = new GameWorld(2L);
+        world.setSceneLogging(false);
+        int rounds;
+        TelemetryWriter writer = new TelemetryWriter(directory, "rounds", TelemetryWriter.Format.CSV, 2048, 3);
+        try {
+            world.setRoundListener(writer);
+            rounds = play(world, 6000);
+        } finally {
+            writer.close();
+        }
+        assertEquals(rounds, writer.getRowsWritten());
+        File[] files = directory.listFiles();
+        assertEquals(3, files.length);
+        for (File file : files) {
+            assertTrue(file.getName(), file.length() <= 2048);
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            assertEquals(TelemetryWriter.CSV_HEADER, lines.get(0));
+        }
+    }
+
+    @Test
+    public void resetMidRoundEndsItWithTheResetReason() throws IOException {
+        File directory = folder.newFolder();
+        GameWorld world = new GameWorld(3L);
+        world.setSceneLogging(false);
+        try (TelemetryWriter writer = new TelemetryWriter(directory, "rounds", TelemetryWriter.Format.NDJSON, 1 << 20, 3)) {
+            world.setRoundListener(writer);
+            world.reset("first");
+            world.update(1f / 60f, new HamsterInput());
+            world.reset("player said \"again\"\n");
+        }
+        List<String> lines = Files.readAllLines(new File(directory, "rounds.ndjson").toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        String line = lines.get(0);
+        assertTrue(line, line.contains("\"startReason\":\"first\""));
+        assertTrue(line, line.contains("\"winner\":\"none\""));
+        assertTrue(line, line.contains("\"endReason\":\"player said \\\"again\\\"\\n\""));
+    }
+
+    @Test
+    public void csvFieldsAreQuotedWhenNeeded() {
+        StringBuilder line = new StringBuilder();
+        TelemetryWriter.appendCsv(line, "restart");
+        line.append(',');
+        TelemetryWriter.appendCsv(line, "caught, \"twice\"");
+        line.append(',');
+        TelemetryWriter.appendCsv(line, null);
+        assertEquals("restart,\"caught, \"\"twice\"\"\",", line.toString());
+    }
+}
@@ -0,0 +1,60 @@
+#!/usr/bin/env python3
+"""Stand-in trainer for TrainerBridge: maps the ring file and answers every step with random actions.
+
+Usage: start `./gradlew headless:runTrainerBridge -PringFile=/tmp/hamsters.ring`, then
+`python3 headless/scripts/random_trainer.py /tmp/hamsters.ring [steps]`. Only the standard library is needed.
+"""
+import mmap
+import os
+import random
+import struct
+import sys
+import time
+
+MAGIC = 0x424F4D48
+HEADER_SIZE = 192
+OBSERVATION_SEQUENCE = 64
+ACTION_SEQUENCE = 128
+ACTION_COUNT = 5
+
+
+def wait_for(ring, offset, sequence):
+    while struct.unpack_from('<q', ring, offset)[0] < sequence:
+        if struct.unpack_from('<i', ring, 20)[0]:
+            sys.exit('game closed the ring')
+        time.sleep(0)
+
+
+def main():
+    path = sys.argv[1]
+    steps = int(sys.argv[2]) if len(sys.argv) > 2 else 10000
+    while not os.path.exists(path) or os.path.getsize(path) < HEADER_SIZE:
+        time.sleep(0.05)
+    with open(path, 'r+b') as f:
+        ring = mmap.mmap(f.fileno(), 0)
+        while struct.unpack_from('<i', ring, 0)[0] != MAGIC:
+            time.sleep(0.05)
+        _, _, envs, obs_size, slots = struct.unpack_from('<5i', ring, 0)
+        obs_slot_bytes = envs * (obs_size + 1) * 4 + ((envs + 3) & ~3)
+        action_region = HEADER_SIZE + slots * obs_slot_bytes
+        episodes = 0
+        total_reward = 0.0
+        start = time.perf_counter()
+        for step in range(steps):
+            wait_for(ring, OBSERVATION_SEQUENCE, step)
+            slot = HEADER_SIZE + (step % slots) * obs_slot_bytes
+            rewards = struct.unpack_from('<%df' % envs, ring, slot + envs * obs_size * 4)
+            dones = ring[slot + envs * (obs_size + 1) * 4:slot + envs * (obs_size + 1) * 4 + envs]
+            total_reward += sum(rewards)
+            episodes += sum(dones)
+            actions = [random.randrange(ACTION_COUNT) for _ in range(envs)]
+            struct.pack_into('<%di' % envs, ring, action_region + (step % slots) * envs * 4, *actions)
+            struct.pack_into('<q', ring, ACTION_SEQUENCE, step)
+        struct.pack_into('<i', ring, 20, 1)
+        elapsed = time.perf_counter() - start
+        print('%d steps x %d envs in %.2f s (%.0f steps/s), %d episodes, reward %.0f'
+              % (steps, envs, elapsed, steps / elapsed, episodes, total_reward))
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,37 @@
+package tatar.eljah.hamsters.headless;
+
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+/** Steers the hamster straight at the grade and restarts as soon as a round is over; stands in for a player. */
+public final class ChaseBot {
+    // Don't jitter around the target once the centres are this close on an axis.
+    private static final float DEAD_ZONE = 4f;
+
+    private ChaseBot() {
+    }
+
+    public static void steer(GameWorld world, HamsterInput input) {
+        input.clear();
+        if (world.isGameOver()) {
+            input.restart = true;
+            return;
+        }
+        steer(world.getHamster(), world.getGrade(), false, input);
+    }
+
+    /** Moves {@code self} towards {@code target}, or directly away from it when {@code flee} is set. */
+    public static void steer(Rectangle self, Rectangle target, boolean flee, HamsterInput input) {
+        float dx = (target.x + target.width / 2f) - (self.x + self.width / 2f);
+        float dy = (target.y + target.height / 2f) - (self.y + self.height / 2f);
+        if (flee) {
+            dx = -dx;
+            dy = -dy;
+        }
+        input.left = dx < -DEAD_ZONE;
+        input.right = dx > DEAD_ZONE;
+        input.down = dy < -DEAD_ZONE;
+        input.up = dy > DEAD_ZONE;
+    }
+}
@@ -0,0 +1,42 @@
+package tatar.eljah.hamsters.headless;
+
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+import tatar.eljah.hamsters.bot.HamsterBot;
+import tatar.eljah.hamsters.metrics.jvm.JvmMetrics;
+import tatar.eljah.hamsters.startup.StartupProbe;
+import tatar.eljah.hamsters.telemetry.TelemetryWriter;
+import tatar.eljah.hamsters.trace.jfr.JfrTraceEvents;
+
+/**
+ * Runs the game rules without a window or GL context at a fixed tick, as fast as the CPU allows.
+ * Usage: {@code HeadlessLauncher [ticks]}; the default simulates one minute of play.
+ */
+public class HeadlessLauncher {
+    private static final float TICK = 1f / 60f;
+    private static final int DEFAULT_TICKS = 60 * 60;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+
+        JfrTraceEvents.install();
+        JvmMetrics.installFromSystemProperties();
+        GameWorld world = new GameWorld();
+        world.setRoundListener(TelemetryWriter.fromSystemProperties());
+        HamsterInput input = new HamsterInput();
+        // -Dhamsters.bot=true lets the behavior-tree bot play instead of an idle hamster, for soak runs.
+        HamsterBot bot = Boolean.getBoolean("hamsters.bot") ? new HamsterBot(world) : null;
+        world.reset("initial startup");
+
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            if (bot != null) bot.steer(input);
+            world.update(TICK, input);
+            if (tick == 0 && StartupProbe.ready("headless")) return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Simulated %d ticks in %.1f ms (%.0f ticks/s); hamster %d, grade %d%n",
+                ticks, elapsed / 1e6, ticks / (elapsed / 1e9), world.getHamsterScore(), world.getGradeScore());
+    }
+}
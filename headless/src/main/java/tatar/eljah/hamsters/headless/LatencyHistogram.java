@@ -0,0 +1,48 @@
+package tatar.eljah.hamsters.headless;
+
+/**
+ * Counts nanosecond durations in power-of-two buckets. Not thread-safe: every worker records into
+ * its own histogram and they are merged once the run is over.
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        counts[bucket]++;
+        total++;
+        if (nanos > max) max = nanos;
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    /** Upper bound, in nanoseconds, of the bucket holding the {@code quantile} sample (0..1). */
+    long percentile(double quantile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) return Math.min(max, (1L << i) - 1);
+        }
+        return max;
+    }
+}
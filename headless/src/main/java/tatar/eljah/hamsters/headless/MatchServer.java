@@ -0,0 +1,139 @@
+package tatar.eljah.hamsters.headless;
+
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hosts many independent hamster-vs-grade matches at once, each driven by a {@link ChaseBot}, and
+ * reports the aggregate tick rate and the distribution of single-match tick times.
+ * <p>
+ * Matches are split into contiguous batches and every batch is one task, which ticks all of its
+ * matches once before moving on to the next tick, so a worker walks the same few worlds over and over.
+ * Tasks run on virtual threads on JDK 21+ and on a fixed pool of one thread per core otherwise.
+ * Usage: {@code MatchServer [matches] [ticks] [batch size]}.
+ */
+public class MatchServer {
+    private static final float TICK = 1f / 60f;
+    private static final int DEFAULT_MATCHES = 4096;
+    private static final int DEFAULT_TICKS = 60 * 60;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final GameWorld[] worlds;
+    private final int batchSize;
+
+    public MatchServer(int matches, int batchSize, long seed) {
+        if (matches <= 0 || batchSize <= 0) throw new IllegalArgumentException("matches and batch size must be positive");
+        this.batchSize = batchSize;
+        worlds = new GameWorld[matches];
+        for (int i = 0; i < matches; i++) {
+            GameWorld world = new GameWorld(seed + i);
+            world.setSceneLogging(false);
+            world.reset();
+            worlds[i] = world;
+        }
+    }
+
+    public GameWorld getWorld(int match) {
+        return worlds[match];
+    }
+
+    /** Advances every match by {@code ticks} fixed steps on {@code executor} and blocks until all are done. */
+    public Result run(int ticks, ExecutorService executor) throws InterruptedException {
+        List<Future<LatencyHistogram>> batches = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int from = 0; from < worlds.length; from += batchSize) {
+            int to = Math.min(worlds.length, from + batchSize);
+            int first = from;
+            batches.add(executor.submit(() -> runBatch(first, to, ticks)));
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        try {
+            for (Future<LatencyHistogram> batch : batches) {
+                latency.add(batch.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A match failed", e.getCause());
+        }
+        return new Result((long) worlds.length * ticks, System.nanoTime() - start, latency);
+    }
+
+    private LatencyHistogram runBatch(int from, int to, int ticks) {
+        LatencyHistogram latency = new LatencyHistogram();
+        HamsterInput input = new HamsterInput();
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = from; i < to; i++) {
+                GameWorld world = worlds[i];
+                long tickStart = System.nanoTime();
+                ChaseBot.steer(world, input);
+                world.update(TICK, input);
+                latency.record(System.nanoTime() - tickStart);
+            }
+        }
+        return latency;
+    }
+
+    /**
+     * Virtual threads are only available from JDK 21, and the server is compiled for Java 8, so the
+     * factory is looked up reflectively.
+     */
+    static ExecutorService newExecutor(int workers) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(workers);
+        }
+    }
+
+    public static final class Result {
+        public final long ticks;
+        public final long elapsedNanos;
+        final LatencyHistogram latency;
+
+        Result(long ticks, long elapsedNanos, LatencyHistogram latency) {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public double ticksPerSecond() {
+            return ticks / (elapsedNanos / 1e9);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MATCHES;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICKS;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_SIZE;
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        MatchServer server = new MatchServer(matches, batchSize, System.nanoTime());
+        ExecutorService executor = newExecutor(workers);
+        Result result;
+        try {
+            result = server.run(ticks, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        int hamster = 0;
+        int grade = 0;
+        for (GameWorld world : server.worlds) {
+            hamster += world.getHamsterScore();
+            grade += world.getGradeScore();
+        }
+        LatencyHistogram latency = result.latency;
+        System.out.printf("%d matches x %d ticks on %s (%d cores, batches of %d) in %.1f ms: %.0f ticks/s%n",
+                matches, ticks, executor.getClass().getSimpleName(), workers, batchSize,
+                result.elapsedNanos / 1e6, result.ticksPerSecond());
+        System.out.printf("match tick latency: p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+                latency.percentile(0.5), latency.percentile(0.99), latency.percentile(0.999), latency.max());
+        System.out.printf("rounds won: hamster %d, grade %d%n", hamster, grade);
+    }
+}
@@ -0,0 +1,268 @@
+package tatar.eljah.hamsters.headless;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A memory-mapped file shared with an out-of-process trainer. The game writes observations, rewards
+ * and done flags for step {@code n} into observation slot {@code n % slots}, then publishes {@code n}
+ * as the observation sequence. The trainer answers with one action per environment in action slot
+ * {@code n % slots} and publishes {@code n} as the action sequence. Each side only ever writes its own
+ * counter, so the handoff needs no locks, only ordering between the payload and the counter.
+ * <p>
+ * Layout, little-endian so numpy can view it directly:
+ * <pre>
+ *    0  int   magic "HMOB"
+ *    4  int   version
+ *    8  int   environments
+ *   12  int   observation size, in floats
+ *   16  int   slots
+ *   20  int   closed flag, set by either side to stop the other
+ *   64  long  observation sequence, -1 before the first step
+ *  128  long  action sequence, -1 before the first answer
+ *  192  observation slots: environments * observation size floats, environments reward floats,
+ *       environments done bytes padded to 4
+ *  ...  action slots: environments ints
+ * </pre>
+ * The counters sit on their own cache lines so the two processes don't false-share.
+ */
+public final class SharedMemoryRing implements AutoCloseable {
+    public static final int MAGIC = 0x424F4D48; // "HMOB" read as little-endian bytes
+    public static final int VERSION = 1;
+
+    private static final int ENVIRONMENTS_OFFSET = 8;
+    private static final int OBSERVATION_SIZE_OFFSET = 12;
+    private static final int SLOTS_OFFSET = 16;
+    private static final int CLOSED_OFFSET = 20;
+    private static final int OBSERVATION_SEQUENCE_OFFSET = 64;
+    private static final int ACTION_SEQUENCE_OFFSET = 128;
+    private static final int HEADER_SIZE = 192;
+    // Spins before falling back to yielding, and then to parking, while waiting for the other side.
+    private static final int SPIN_LIMIT = 1000;
+    private static final int YIELD_LIMIT = 2000;
+
+    private static final MethodHandle ACQUIRE_FENCE = fence("acquireFence");
+    private static final MethodHandle RELEASE_FENCE = fence("releaseFence");
+    private static volatile int fallbackFence;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int environments;
+    private final int observationSize;
+    private final int slots;
+    private final FloatBuffer[] observationSlots;
+    private final IntBuffer[] actionSlots;
+    private final int observationSlotBytes;
+
+    private SharedMemoryRing(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " observation ring");
+        }
+        environments = buffer.getInt(ENVIRONMENTS_OFFSET);
+        observationSize = buffer.getInt(OBSERVATION_SIZE_OFFSET);
+        slots = buffer.getInt(SLOTS_OFFSET);
+        observationSlotBytes = observationSlotBytes(environments, observationSize);
+        int actionRegion = HEADER_SIZE + slots * observationSlotBytes;
+        observationSlots = new FloatBuffer[slots];
+        actionSlots = new IntBuffer[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            observationSlots[slot] = view(HEADER_SIZE + slot * observationSlotBytes, environments * observationSize * 4).asFloatBuffer();
+            actionSlots[slot] = view(actionRegion + slot * environments * 4, environments * 4).asIntBuffer();
+        }
+    }
+
+    private ByteBuffer view(int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Creates (or truncates) the file for the game side and lays out an empty ring. */
+    public static SharedMemoryRing create(Path file, int environments, int observationSize, int slots) throws IOException {
+        if (environments <= 0 || observationSize <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("environments, observation size and slots must be positive");
+        }
+        long size = HEADER_SIZE + (long) slots * (observationSlotBytes(environments, observationSize) + environments * 4L);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(ENVIRONMENTS_OFFSET, environments);
+        buffer.putInt(OBSERVATION_SIZE_OFFSET, observationSize);
+        buffer.putInt(SLOTS_OFFSET, slots);
+        buffer.putInt(CLOSED_OFFSET, 0);
+        buffer.putLong(OBSERVATION_SEQUENCE_OFFSET, -1L);
+        buffer.putLong(ACTION_SEQUENCE_OFFSET, -1L);
+        releaseFence();
+        // The magic goes last, so a trainer polling for the file never sees a half-written header.
+        buffer.putInt(0, MAGIC);
+        return new SharedMemoryRing(channel, buffer);
+    }
+
+    /** Maps a ring that the game side created. */
+    public static SharedMemoryRing open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new SharedMemoryRing(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+    }
+
+    private static int observationSlotBytes(int environments, int observationSize) {
+        return environments * (observationSize + 1) * 4 + ((environments + 3) & ~3);
+    }
+
+    public int environments() {
+        return environments;
+    }
+
+    public int observationSize() {
+        return observationSize;
+    }
+
+    /** The mapped floats observations for step {@code sequence} go into; index {@code env * observationSize + i}. */
+    public FloatBuffer observations(long sequence) {
+        return observationSlots[slot(sequence)];
+    }
+
+    /** Game side: stores the step's rewards and done flags and makes the whole slot visible to the trainer. */
+    public void publishObservations(long sequence, float[] rewards, boolean[] dones) {
+        int base = HEADER_SIZE + slot(sequence) * observationSlotBytes + environments * observationSize * 4;
+        for (int i = 0; i < environments; i++) {
+            buffer.putFloat(base + i * 4, rewards[i]);
+        }
+        int doneBase = base + environments * 4;
+        for (int i = 0; i < environments; i++) {
+            buffer.put(doneBase + i, dones[i] ? (byte) 1 : (byte) 0);
+        }
+        releaseFence();
+        buffer.putLong(OBSERVATION_SEQUENCE_OFFSET, sequence);
+    }
+
+    /**
+     * Game side: waits for the trainer's answer to step {@code sequence} and copies it into {@code actions}.
+     * Returns false instead if the trainer closed the ring.
+     */
+    public boolean awaitActions(long sequence, int[] actions, long timeoutNanos) throws TimeoutException {
+        if (!await(ACTION_SEQUENCE_OFFSET, sequence, timeoutNanos)) return false;
+        IntBuffer slot = actionSlot(sequence);
+        for (int i = 0; i < environments; i++) {
+            actions[i] = slot.get(i);
+        }
+        return true;
+    }
+
+    /** Trainer side: waits until observations for {@code sequence} are published; false if the game closed the ring. */
+    public boolean awaitObservations(long sequence, long timeoutNanos) throws TimeoutException {
+        return await(OBSERVATION_SEQUENCE_OFFSET, sequence, timeoutNanos);
+    }
+
+    public float reward(long sequence, int env) {
+        return buffer.getFloat(HEADER_SIZE + slot(sequence) * observationSlotBytes + (environments * observationSize + env) * 4);
+    }
+
+    public boolean done(long sequence, int env) {
+        return buffer.get(HEADER_SIZE + slot(sequence) * observationSlotBytes + environments * (observationSize + 1) * 4 + env) != 0;
+    }
+
+    /** Trainer side: writes one action per environment for step {@code sequence} and publishes them. */
+    public void publishActions(long sequence, int[] actions) {
+        IntBuffer slot = actionSlot(sequence);
+        for (int i = 0; i < environments; i++) {
+            slot.put(i, actions[i]);
+        }
+        releaseFence();
+        buffer.putLong(ACTION_SEQUENCE_OFFSET, sequence);
+    }
+
+    /** Asks the other side to stop; it notices on its next wait. */
+    public void markClosed() {
+        buffer.putInt(CLOSED_OFFSET, 1);
+    }
+
+    public boolean isClosed() {
+        return buffer.getInt(CLOSED_OFFSET) != 0;
+    }
+
+    private IntBuffer actionSlot(long sequence) {
+        return actionSlots[slot(sequence)];
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % slots);
+    }
+
+    private boolean await(int counterOffset, long sequence, long timeoutNanos) throws TimeoutException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int idle = 0;
+        while (buffer.getLong(counterOffset) < sequence) {
+            if (isClosed()) return false;
+            if (++idle > SPIN_LIMIT) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("No sequence " + sequence + " after " + timeoutNanos / 1_000_000 + " ms");
+                }
+                if (idle > YIELD_LIMIT) {
+                    LockSupport.parkNanos(50_000L);
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+        acquireFence();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // VarHandle fences exist from Java 9; the module targets Java 8, so they are looked up at runtime and
+    // a volatile access, which HotSpot compiles to the same barriers, stands in on older JVMs.
+    private static MethodHandle fence(String name) {
+        try {
+            Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            return MethodHandles.publicLookup().findStatic(varHandle, name, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static void releaseFence() {
+        if (RELEASE_FENCE == null) {
+            fallbackFence = 0;
+            return;
+        }
+        try {
+            RELEASE_FENCE.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static void acquireFence() {
+        if (ACQUIRE_FENCE == null) {
+            int ignored = fallbackFence;
+            return;
+        }
+        try {
+            ACQUIRE_FENCE.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package tatar.eljah.hamsters.headless;
+
+import tatar.eljah.hamsters.rl.VecEnv;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serves a {@link VecEnv} to a trainer in another process through a {@link SharedMemoryRing}: publishes
+ * the observations of step {@code n}, waits for the trainer's actions for {@code n}, steps, and repeats
+ * until the trainer marks the ring closed or goes quiet for too long.
+ * Usage: {@code TrainerBridge <ring file> [environments] [seed]}.
+ */
+public class TrainerBridge {
+    public static final int SLOTS = 4;
+    private static final int DEFAULT_ENVIRONMENTS = 64;
+    private static final long ACTION_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final VecEnv env;
+    private final SharedMemoryRing ring;
+    private final int[] actions;
+    private final float[] rewards;
+    private final boolean[] dones;
+
+    public TrainerBridge(VecEnv env, SharedMemoryRing ring) {
+        if (ring.environments() != env.size() || ring.observationSize() != VecEnv.OBSERVATION_SIZE) {
+            throw new IllegalArgumentException("Ring layout doesn't match the environment");
+        }
+        this.env = env;
+        this.ring = ring;
+        actions = new int[env.size()];
+        rewards = new float[env.size()];
+        dones = new boolean[env.size()];
+    }
+
+    /** Runs until the trainer closes the ring; returns the number of steps served. */
+    public long serve(long actionTimeoutNanos) throws TimeoutException {
+        env.reset(ring.observations(0));
+        ring.publishObservations(0, rewards, dones);
+        long sequence = 0;
+        while (ring.awaitActions(sequence, actions, actionTimeoutNanos)) {
+            sequence++;
+            env.step(actions, ring.observations(sequence), rewards, dones);
+            ring.publishObservations(sequence, rewards, dones);
+        }
+        return sequence;
+    }
+
+    public static void main(String[] args) throws IOException, TimeoutException {
+        if (args.length < 1) {
+            System.err.println("Usage: TrainerBridge <ring file> [environments] [seed]");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[0]);
+        int environments = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ENVIRONMENTS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        try (SharedMemoryRing ring = SharedMemoryRing.create(file, environments, VecEnv.OBSERVATION_SIZE, SLOTS)) {
+            System.out.println("Serving " + environments + " environments through " + file.toAbsolutePath());
+            long start = System.nanoTime();
+            long steps = new TrainerBridge(new VecEnv(environments, seed), ring).serve(ACTION_TIMEOUT_NANOS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Served %d steps (%.0f steps/s, %.0f environment steps/s)%n",
+                    steps, steps / seconds, steps * environments / seconds);
+        }
+    }
+}
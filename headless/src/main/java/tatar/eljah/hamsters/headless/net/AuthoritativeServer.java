@@ -0,0 +1,299 @@
+package tatar.eljah.hamsters.headless.net;
+
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs two-player matches, one hamster and one player-steered grade, with the game rules at a fixed
+ * {@value NetProtocol#TICKS_PER_SECOND} Hz on a single non-blocking {@link DatagramChannel}. Clients
+ * only send their buttons; the server steps the {@link GameWorld} and answers every tick with a
+ * snapshot delta-compressed against the last tick that client acknowledged.
+ * Usage: {@code AuthoritativeServer [port]}.
+ */
+public final class AuthoritativeServer implements Closeable {
+    public static final int DEFAULT_PORT = 27960;
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+    // Players that have been silent this long are dropped and their match ends.
+    private static final long PEER_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET);
+    private final Map<SocketAddress, Peer> peers = new HashMap<>();
+    private final List<Match> matches = new ArrayList<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTime = threads.isCurrentThreadCpuTimeSupported();
+    private long seed;
+    // Match ids are never reused, so a client can't mistake a new match for one that ended.
+    private int nextMatchId;
+
+    private long ticks;
+    private long matchTicks;
+    private long simulationCpuNanos;
+    private long bytesSent;
+    private long packetsSent;
+
+    public AuthoritativeServer(int port, long seed) throws IOException {
+        this.seed = seed;
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    /** Reads every pending datagram, steps every full match once and sends the snapshots. */
+    public void tick() throws IOException {
+        long now = System.nanoTime();
+        receive(now);
+        long cpuStart = cpuTime ? threads.getCurrentThreadCpuTime() : now;
+        for (int i = matches.size() - 1; i >= 0; i--) {
+            Match match = matches.get(i);
+            if (match.isAbandoned(now)) {
+                drop(match, null);
+                continue;
+            }
+            if (!match.isFull()) continue;
+            match.step();
+            matchTicks++;
+            send(match.hamster, match);
+            send(match.grade, match);
+        }
+        simulationCpuNanos += (cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime()) - cpuStart;
+        ticks++;
+    }
+
+    private void receive(long now) throws IOException {
+        while (true) {
+            packet.clear();
+            SocketAddress from = channel.receive(packet);
+            if (from == null) return;
+            packet.flip();
+            if (!packet.hasRemaining()) continue;
+            byte type = packet.get();
+            Peer peer = peers.get(from);
+            if (type == NetProtocol.JOIN) {
+                if (peer == null) {
+                    peer = join(from);
+                }
+                peer.lastHeard = now;
+                welcome(peer);
+            } else if (peer != null && type == NetProtocol.INPUT && packet.remaining() >= 9) {
+                peer.lastHeard = now;
+                int sequence = packet.getInt();
+                byte buttons = packet.get();
+                int ack = packet.getInt();
+                // Datagrams can arrive out of order; only the newest input and acknowledgement count.
+                if (sequence > peer.inputSequence) {
+                    peer.inputSequence = sequence;
+                    peer.input.setButtons(buttons);
+                }
+                if (ack > peer.ackTick) peer.ackTick = ack;
+            } else if (peer != null && type == NetProtocol.LEAVE) {
+                drop(peer.match, peer);
+            }
+        }
+    }
+
+    private Peer join(SocketAddress address) {
+        Match match = null;
+        for (Match candidate : matches) {
+            if (!candidate.isFull()) {
+                match = candidate;
+                break;
+            }
+        }
+        if (match == null) {
+            match = new Match(nextMatchId++, seed++);
+            matches.add(match);
+        }
+        Peer peer = new Peer(address, match);
+        if (match.hamster == null) {
+            peer.role = NetProtocol.ROLE_HAMSTER;
+            match.hamster = peer;
+        } else {
+            peer.role = NetProtocol.ROLE_GRADE;
+            match.grade = peer;
+        }
+        peers.put(address, peer);
+        return peer;
+    }
+
+    /** Ends {@code match}, telling every player but {@code leaving}, which may be null. */
+    private void drop(Match match, Peer leaving) throws IOException {
+        matches.remove(match);
+        end(match.hamster, leaving);
+        end(match.grade, leaving);
+    }
+
+    private void end(Peer peer, Peer leaving) throws IOException {
+        if (peer == null) return;
+        peers.remove(peer.address);
+        if (peer == leaving) return;
+        packet.clear();
+        packet.put(NetProtocol.END).putInt(peer.match.id);
+        packet.flip();
+        transmit(peer);
+    }
+
+    private void welcome(Peer peer) throws IOException {
+        packet.clear();
+        packet.put(NetProtocol.WELCOME).put((byte) peer.role).putInt(peer.match.id);
+        packet.flip();
+        transmit(peer);
+    }
+
+    private void send(Peer peer, Match match) throws IOException {
+        StateFrame current = match.frame(match.tick);
+        StateFrame base = peer.ackTick >= 0 ? match.frame(peer.ackTick) : null;
+        if (base != null && base.tick != peer.ackTick) base = null; // too old, fall back to a full frame
+        packet.clear();
+        packet.put(NetProtocol.SNAPSHOT).putInt(current.tick).putInt(base == null ? -1 : base.tick);
+        current.write(packet, current.changedFields(base));
+        packet.flip();
+        transmit(peer);
+    }
+
+    private void transmit(Peer peer) throws IOException {
+        int size = packet.remaining();
+        if (channel.send(packet, peer.address) > 0) {
+            bytesSent += size + NetProtocol.UDP_OVERHEAD;
+            packetsSent++;
+        }
+    }
+
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    GameWorld getWorld(int match) {
+        for (Match candidate : matches) {
+            if (candidate.id == match) return candidate.world;
+        }
+        return null;
+    }
+
+    /** Bytes sent per client per second of play, including UDP/IP headers. */
+    public double bytesPerClientSecond() {
+        return matchTicks == 0 ? 0 : bytesSent / (2.0 * matchTicks / NetProtocol.TICKS_PER_SECOND);
+    }
+
+    /** CPU time spent stepping, encoding and sending per match tick. */
+    public double cpuNanosPerMatchTick() {
+        return matchTicks == 0 ? 0 : (double) simulationCpuNanos / matchTicks;
+    }
+
+    public long getPacketsSent() {
+        return packetsSent;
+    }
+
+    public String report() {
+        double cpuShare = cpuNanosPerMatchTick() * NetProtocol.TICKS_PER_SECOND / 1e9;
+        return String.format("%d matches, %.2f kbit/s per client, %.1f us CPU per match tick (%.3f%% of a core per match, ~%.0f matches per core)",
+                matches.size(), bytesPerClientSecond() * 8 / 1000, cpuNanosPerMatchTick() / 1000,
+                cpuShare * 100, cpuShare > 0 ? 1 / cpuShare : 0);
+    }
+
+    /** Ticks at a fixed rate until the thread is interrupted, printing a report every few seconds. */
+    public void run() throws IOException {
+        long next = System.nanoTime();
+        long nextReport = next + REPORT_INTERVAL_NANOS;
+        while (!Thread.currentThread().isInterrupted()) {
+            tick();
+            next += NetProtocol.TICK_NANOS;
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                System.out.println(report());
+                nextReport = now + REPORT_INTERVAL_NANOS;
+            }
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+            } else {
+                next = now; // fell behind; don't try to catch up with a burst of ticks
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Peer {
+        final SocketAddress address;
+        final Match match;
+        final HamsterInput input = new HamsterInput();
+        int role;
+        int inputSequence = -1;
+        int ackTick = -1;
+        long lastHeard;
+
+        Peer(SocketAddress address, Match match) {
+            this.address = address;
+            this.match = match;
+        }
+    }
+
+    private static final class Match {
+        final int id;
+        final GameWorld world;
+        final StateFrame[] history = new StateFrame[NetProtocol.HISTORY];
+        Peer hamster;
+        Peer grade;
+        int tick = -1;
+
+        Match(int id, long seed) {
+            this.id = id;
+            world = new GameWorld(seed);
+            world.setSceneLogging(false);
+            world.reset();
+            for (int i = 0; i < history.length; i++) {
+                history[i] = new StateFrame();
+            }
+        }
+
+        boolean isFull() {
+            return hamster != null && grade != null;
+        }
+
+        boolean isAbandoned(long now) {
+            return (hamster != null && now - hamster.lastHeard > PEER_TIMEOUT_NANOS)
+                    || (grade != null && now - grade.lastHeard > PEER_TIMEOUT_NANOS);
+        }
+
+        void step() {
+            if (tick >= 0) {
+                world.update(NetProtocol.TICK, hamster.input, grade.input);
+            }
+            tick++;
+            frame(tick).capture(tick, world);
+        }
+
+        StateFrame frame(int tick) {
+            return history[tick & (NetProtocol.HISTORY - 1)];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (AuthoritativeServer server = new AuthoritativeServer(port, System.nanoTime())) {
+            System.out.println("Listening on UDP port " + server.getPort());
+            server.run();
+        }
+    }
+}
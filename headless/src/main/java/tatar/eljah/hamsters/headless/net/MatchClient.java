@@ -0,0 +1,192 @@
+package tatar.eljah.hamsters.headless.net;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * One player's end of a match on an {@link AuthoritativeServer}. It sends buttons, rebuilds frames
+ * from delta snapshots and renders {@value #INTERPOLATION_TICKS} ticks in the past, blending between the
+ * two frames around that moment, so positions stay smooth despite jitter and the odd lost datagram.
+ */
+public final class MatchClient implements Closeable {
+    /** How far behind the newest snapshot the client renders; covers about two lost packets of jitter. */
+    public static final int INTERPOLATION_TICKS = 6;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(NetProtocol.MAX_PACKET);
+    private final StateFrame[] history = new StateFrame[NetProtocol.HISTORY];
+    private final StateFrame scratch = new StateFrame();
+
+    private int role = -1;
+    private int matchId = -1;
+    private int inputSequence;
+    private int latestTick = -1;
+    private long latestArrival;
+    private long bytesReceived;
+
+    public MatchClient(InetSocketAddress server) throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(server);
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new StateFrame();
+        }
+    }
+
+    /** Asks for a seat; repeat until {@link #isJoined()}, as the request or the answer may be lost. */
+    public void join() throws IOException {
+        packet.clear();
+        packet.put(NetProtocol.JOIN).flip();
+        channel.write(packet);
+    }
+
+    public void leave() throws IOException {
+        packet.clear();
+        packet.put(NetProtocol.LEAVE).flip();
+        channel.write(packet);
+    }
+
+    /** False before the welcome arrives and again once the server has ended the match. */
+    public boolean isJoined() {
+        return role >= 0;
+    }
+
+    public boolean isHamster() {
+        return role == NetProtocol.ROLE_HAMSTER;
+    }
+
+    public int getMatchId() {
+        return matchId;
+    }
+
+    public int getLatestTick() {
+        return latestTick;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /** Sends this tick's buttons along with the newest snapshot received, which the server deltas against. */
+    public void sendInput(HamsterInput input) throws IOException {
+        packet.clear();
+        packet.put(NetProtocol.INPUT).putInt(inputSequence++).put((byte) input.toButtons()).putInt(latestTick);
+        packet.flip();
+        channel.write(packet);
+    }
+
+    /** Reads every pending datagram; returns how many snapshots arrived. */
+    public int poll(long nowNanos) throws IOException {
+        int snapshots = 0;
+        while (true) {
+            packet.clear();
+            int read;
+            try {
+                read = channel.read(packet);
+            } catch (java.net.PortUnreachableException e) {
+                return snapshots; // the server isn't up yet
+            }
+            if (read <= 0) return snapshots;
+            bytesReceived += read + NetProtocol.UDP_OVERHEAD;
+            packet.flip();
+            byte type = packet.get();
+            if (type == NetProtocol.WELCOME) {
+                role = packet.get();
+                matchId = packet.getInt();
+            } else if (type == NetProtocol.END) {
+                if (packet.getInt() == matchId) endMatch();
+            } else if (type == NetProtocol.SNAPSHOT && receiveSnapshot()) {
+                latestArrival = nowNanos;
+                snapshots++;
+            }
+        }
+    }
+
+    private void endMatch() {
+        role = -1;
+        matchId = -1;
+        latestTick = -1;
+        for (StateFrame frame : history) {
+            frame.tick = -1;
+        }
+    }
+
+    private boolean receiveSnapshot() {
+        int tick = packet.getInt();
+        int baseTick = packet.getInt();
+        if (tick <= latestTick) return false; // late or duplicated; the newer frame already covers it
+        StateFrame base = null;
+        if (baseTick >= 0) {
+            base = frame(baseTick);
+            if (base.tick != baseTick) return false; // we no longer have the base; wait for a later frame
+        }
+        // Decode into scratch first, as the target slot may be the base itself.
+        scratch.read(packet, tick, base == null ? scratch : base);
+        frame(tick).set(scratch);
+        latestTick = tick;
+        return true;
+    }
+
+    private StateFrame frame(int tick) {
+        return history[tick & (NetProtocol.HISTORY - 1)];
+    }
+
+    /** The newest frame received, or null before the first one. */
+    StateFrame latest() {
+        return latestTick < 0 ? null : frame(latestTick);
+    }
+
+    /** Server tick being displayed at {@code nowNanos}, fractional, estimated from the newest arrival. */
+    public float renderTick(long nowNanos) {
+        float sinceArrival = (nowNanos - latestArrival) / (float) NetProtocol.TICK_NANOS;
+        return latestTick + Math.min(sinceArrival, INTERPOLATION_TICKS) - INTERPOLATION_TICKS;
+    }
+
+    /**
+     * Writes the interpolated hamster and grade rectangles for {@code nowNanos}. Returns false until a
+     * snapshot has arrived. Across a round change the newer frame is shown as is.
+     */
+    public boolean interpolate(long nowNanos, Rectangle hamster, Rectangle grade) {
+        if (latestTick < 0) return false;
+        float renderTick = Math.max(renderTick(nowNanos), latestTick - NetProtocol.HISTORY + 1);
+        int from = (int) Math.floor(renderTick);
+        StateFrame a = null;
+        StateFrame b = null;
+        for (int tick = from; tick > latestTick - NetProtocol.HISTORY && tick >= 0; tick--) {
+            if (frame(tick).tick == tick) {
+                a = frame(tick);
+                break;
+            }
+        }
+        for (int tick = from + 1; tick <= latestTick; tick++) {
+            if (frame(tick).tick == tick) {
+                b = frame(tick);
+                break;
+            }
+        }
+        if (a == null) a = b;
+        if (b == null) b = a;
+        if (a.round != b.round) a = b; // a new round started in between; don't slide across it
+        float alpha = a == b ? 0f : MathUtils.clamp((renderTick - a.tick) / (b.tick - a.tick), 0f, 1f);
+        hamster.set(MathUtils.lerp(StateFrame.position(a.hamsterX), StateFrame.position(b.hamsterX), alpha),
+                MathUtils.lerp(StateFrame.position(a.hamsterY), StateFrame.position(b.hamsterY), alpha),
+                GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+        grade.set(MathUtils.lerp(StateFrame.position(a.gradeX), StateFrame.position(b.gradeX), alpha),
+                MathUtils.lerp(StateFrame.position(a.gradeY), StateFrame.position(b.gradeY), alpha),
+                GameWorld.CELL_SIZE, GameWorld.CELL_SIZE);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,70 @@
+package tatar.eljah.hamsters.headless.net;
+
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.HamsterInput;
+import tatar.eljah.hamsters.headless.ChaseBot;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hosts {@code matches} two-player matches on loopback with bot clients in the same JVM (a chasing
+ * hamster and a fleeing grade, both steering from their interpolated view) and prints the server's
+ * bandwidth and CPU report. Usage: {@code NetBenchmark [matches] [seconds]}.
+ */
+public final class NetBenchmark {
+    private NetBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try (AuthoritativeServer server = new AuthoritativeServer(0, 1L)) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+            MatchClient[] clients = new MatchClient[matches * 2];
+            HamsterInput[] inputs = new HamsterInput[clients.length];
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new MatchClient(address);
+                inputs[i] = new HamsterInput();
+                // Join one at a time so consecutive clients pair up into the same match.
+                while (!clients[i].isJoined()) {
+                    clients[i].join();
+                    server.tick();
+                    clients[i].poll(System.nanoTime());
+                }
+            }
+
+            Rectangle hamster = new Rectangle();
+            Rectangle grade = new Rectangle();
+            long next = System.nanoTime();
+            long end = next + seconds * 1_000_000_000L;
+            while (System.nanoTime() < end) {
+                long now = System.nanoTime();
+                for (int i = 0; i < clients.length; i++) {
+                    MatchClient client = clients[i];
+                    client.poll(now);
+                    HamsterInput input = inputs[i];
+                    input.clear();
+                    if (client.interpolate(now, hamster, grade)) {
+                        if (client.isHamster()) {
+                            ChaseBot.steer(hamster, grade, false, input);
+                        } else {
+                            ChaseBot.steer(grade, hamster, true, input);
+                        }
+                    }
+                    client.sendInput(input);
+                }
+                server.tick();
+                next += NetProtocol.TICK_NANOS;
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+            System.out.println(server.report());
+            for (MatchClient client : clients) {
+                client.close();
+            }
+        }
+    }
+}
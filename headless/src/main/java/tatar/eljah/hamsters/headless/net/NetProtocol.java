@@ -0,0 +1,40 @@
+package tatar.eljah.hamsters.headless.net;
+
+/**
+ * Packet layouts shared by {@link AuthoritativeServer} and {@link MatchClient}. Every datagram starts
+ * with a type byte; multi-byte values are big-endian.
+ * <pre>
+ *   client JOIN      type
+ *   client INPUT     type, int input sequence, byte buttons, int last snapshot tick received
+ *   client LEAVE     type
+ *   server WELCOME   type, byte role, int match
+ *   server SNAPSHOT  type, int tick, int base tick (-1 for a full frame), changed-field mask, changed fields
+ *   server END       type, int match
+ * </pre>
+ * Snapshots are deltas against the newest tick the client has acknowledged, so in steady play only
+ * the moving rectangles are sent. A match ends when either player leaves or goes silent; the other is
+ * sent END and has to JOIN again.
+ */
+final class NetProtocol {
+    static final byte JOIN = 1;
+    static final byte INPUT = 2;
+    static final byte LEAVE = 3;
+    static final byte WELCOME = 10;
+    static final byte SNAPSHOT = 11;
+    static final byte END = 12;
+
+    static final int ROLE_HAMSTER = 0;
+    static final int ROLE_GRADE = 1;
+
+    static final int TICKS_PER_SECOND = 60;
+    static final float TICK = 1f / TICKS_PER_SECOND;
+    static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    /** Frames kept on both ends to delta against and interpolate between; a power of two. */
+    static final int HISTORY = 64;
+    static final int MAX_PACKET = 512;
+    /** IPv4 plus UDP header bytes, added when reporting bandwidth. */
+    static final int UDP_OVERHEAD = 28;
+
+    private NetProtocol() {
+    }
+}
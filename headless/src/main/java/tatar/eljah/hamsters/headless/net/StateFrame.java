@@ -0,0 +1,143 @@
+package tatar.eljah.hamsters.headless.net;
+
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The state of one match at one server tick as clients see it, quantized to what the wire carries:
+ * positions in sixteenths of a pixel, the occupancy grid as a bit set, the round's identity, flags and scores.
+ * Frames are preallocated and overwritten in place on both ends.
+ */
+final class StateFrame {
+    static final int GRID_WORDS = (GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT + 31) / 32;
+    static final float POSITION_SCALE = 16f;
+
+    static final int FIELD_HAMSTER = 1;
+    static final int FIELD_GRADE = 1 << 1;
+    static final int FIELD_ROUND = 1 << 2;
+    static final int FIELD_SCORES = 1 << 3;
+    static final int FIELD_GRID = 1 << 4;
+    static final int ALL_FIELDS = FIELD_HAMSTER | FIELD_GRADE | FIELD_ROUND | FIELD_SCORES | FIELD_GRID;
+
+    static final int ROUND_GAME_OVER = 1;
+    static final int ROUND_HAMSTER_WIN = 1 << 1;
+
+    int tick = -1;
+    short hamsterX;
+    short hamsterY;
+    short gradeX;
+    short gradeY;
+    // Low bits of the round seed, so clients can tell a new round from a teleport.
+    int round;
+    byte roundFlags;
+    short hamsterScore;
+    short gradeScore;
+    final int[] grid = new int[GRID_WORDS];
+
+    void capture(int tick, GameWorld world) {
+        this.tick = tick;
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        hamsterX = quantize(hamster.x);
+        hamsterY = quantize(hamster.y);
+        gradeX = quantize(grade.x);
+        gradeY = quantize(grade.y);
+        round = (int) world.getRoundSeed();
+        roundFlags = (byte) ((world.isGameOver() ? ROUND_GAME_OVER : 0) | (world.isHamsterWin() ? ROUND_HAMSTER_WIN : 0));
+        hamsterScore = (short) world.getHamsterScore();
+        gradeScore = (short) world.getGradeScore();
+        java.util.Arrays.fill(grid, 0);
+        boolean[][] cells = world.getGrid();
+        for (int x = 0; x < GameWorld.GRID_WIDTH; x++) {
+            for (int y = 0; y < GameWorld.GRID_HEIGHT; y++) {
+                if (cells[x][y]) {
+                    int cell = x * GameWorld.GRID_HEIGHT + y;
+                    grid[cell >>> 5] |= 1 << (cell & 31);
+                }
+            }
+        }
+    }
+
+    void set(StateFrame other) {
+        tick = other.tick;
+        hamsterX = other.hamsterX;
+        hamsterY = other.hamsterY;
+        gradeX = other.gradeX;
+        gradeY = other.gradeY;
+        round = other.round;
+        roundFlags = other.roundFlags;
+        hamsterScore = other.hamsterScore;
+        gradeScore = other.gradeScore;
+        System.arraycopy(other.grid, 0, grid, 0, GRID_WORDS);
+    }
+
+    boolean isBlocked(int x, int y) {
+        int cell = x * GameWorld.GRID_HEIGHT + y;
+        return (grid[cell >>> 5] & (1 << (cell & 31))) != 0;
+    }
+
+    /** Bit mask of the fields that differ from {@code base}; every field when there is no base. */
+    int changedFields(StateFrame base) {
+        if (base == null) return ALL_FIELDS;
+        int fields = 0;
+        if (hamsterX != base.hamsterX || hamsterY != base.hamsterY) fields |= FIELD_HAMSTER;
+        if (gradeX != base.gradeX || gradeY != base.gradeY) fields |= FIELD_GRADE;
+        if (round != base.round || roundFlags != base.roundFlags) fields |= FIELD_ROUND;
+        if (hamsterScore != base.hamsterScore || gradeScore != base.gradeScore) fields |= FIELD_SCORES;
+        for (int i = 0; i < GRID_WORDS; i++) {
+            if (grid[i] != base.grid[i]) {
+                fields |= FIELD_GRID;
+                break;
+            }
+        }
+        return fields;
+    }
+
+    /** Writes the fields in {@code fields}; the rest are taken from the base frame when decoding. */
+    void write(ByteBuffer out, int fields) {
+        out.put((byte) fields);
+        if ((fields & FIELD_HAMSTER) != 0) out.putShort(hamsterX).putShort(hamsterY);
+        if ((fields & FIELD_GRADE) != 0) out.putShort(gradeX).putShort(gradeY);
+        if ((fields & FIELD_ROUND) != 0) out.putInt(round).put(roundFlags);
+        if ((fields & FIELD_SCORES) != 0) out.putShort(hamsterScore).putShort(gradeScore);
+        if ((fields & FIELD_GRID) != 0) {
+            for (int word : grid) out.putInt(word);
+        }
+    }
+
+    /** Reads a frame written against {@code base}, which must already hold the base tick's state (or be this frame). */
+    void read(ByteBuffer in, int tick, StateFrame base) {
+        if (base != this) set(base);
+        this.tick = tick;
+        int fields = in.get();
+        if ((fields & FIELD_HAMSTER) != 0) {
+            hamsterX = in.getShort();
+            hamsterY = in.getShort();
+        }
+        if ((fields & FIELD_GRADE) != 0) {
+            gradeX = in.getShort();
+            gradeY = in.getShort();
+        }
+        if ((fields & FIELD_ROUND) != 0) {
+            round = in.getInt();
+            roundFlags = in.get();
+        }
+        if ((fields & FIELD_SCORES) != 0) {
+            hamsterScore = in.getShort();
+            gradeScore = in.getShort();
+        }
+        if ((fields & FIELD_GRID) != 0) {
+            for (int i = 0; i < GRID_WORDS; i++) grid[i] = in.getInt();
+        }
+    }
+
+    static short quantize(float position) {
+        return (short) Math.round(position * POSITION_SCALE);
+    }
+
+    static float position(short quantized) {
+        return quantized / POSITION_SCALE;
+    }
+}
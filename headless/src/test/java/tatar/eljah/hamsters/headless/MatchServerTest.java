@@ -0,0 +1,40 @@
+package tatar.eljah.hamsters.headless;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class MatchServerTest {
+
+    @Test
+    public void everyMatchIsTickedOncePerStep() throws InterruptedException {
+        MatchServer server = new MatchServer(50, 8, 7L);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        MatchServer.Result result;
+        try {
+            result = server.run(300, executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(50L * 300, result.ticks);
+        assertEquals(result.ticks, result.latency.count());
+        for (int i = 0; i < 50; i++) {
+            assertTrue("five seconds of chasing should finish at least one round",
+                    server.getWorld(i).getHamsterScore() > 0);
+        }
+    }
+
+    @Test
+    public void percentilesComeFromTheRecordedBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) histogram.record(100);
+        histogram.record(10_000);
+        assertEquals(127, histogram.percentile(0.5));
+        assertEquals(127, histogram.percentile(0.99));
+        assertEquals(10_000, histogram.percentile(1.0));
+        assertEquals(10_000, histogram.max());
+    }
+}
@@ -0,0 +1,68 @@
+package tatar.eljah.hamsters.headless;
+
+import org.junit.Test;
+import tatar.eljah.hamsters.rl.VecEnv;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class SharedMemoryRingTest {
+    private static final int ENVS = 8;
+    private static final int STEPS = 500;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void trainerStandInSeesTheSameEpisodesAsALocalEnvironment() throws Exception {
+        File file = File.createTempFile("hamsters-ring", ".bin");
+        file.deleteOnExit();
+        AtomicLong served = new AtomicLong(-1);
+        Throwable[] failure = new Throwable[1];
+
+        try (SharedMemoryRing gameSide = SharedMemoryRing.create(file.toPath(), ENVS, VecEnv.OBSERVATION_SIZE, TrainerBridge.SLOTS)) {
+            Thread game = new Thread(() -> {
+                try {
+                    served.set(new TrainerBridge(new VecEnv(ENVS, 5L), gameSide).serve(TIMEOUT));
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }, "bridge");
+            game.start();
+
+            // The trainer maps the file on its own, as a separate process would.
+            VecEnv reference = new VecEnv(ENVS, 5L);
+            float[] expected = new float[ENVS * VecEnv.OBSERVATION_SIZE];
+            float[] rewards = new float[ENVS];
+            boolean[] dones = new boolean[ENVS];
+            int[] actions = new int[ENVS];
+            int episodes = 0;
+            try (SharedMemoryRing trainer = SharedMemoryRing.open(file.toPath())) {
+                reference.reset(expected);
+                for (long step = 0; step <= STEPS; step++) {
+                    assertTrue(trainer.awaitObservations(step, TIMEOUT));
+                    FloatBuffer observations = trainer.observations(step);
+                    for (int i = 0; i < expected.length; i++) {
+                        assertEquals("step " + step + " value " + i, expected[i], observations.get(i), 0f);
+                    }
+                    for (int env = 0; env < ENVS; env++) {
+                        assertEquals(rewards[env], trainer.reward(step, env), 0f);
+                        assertEquals(dones[env], trainer.done(step, env));
+                        if (dones[env]) episodes++;
+                    }
+                    if (step == STEPS) break;
+                    for (int env = 0; env < ENVS; env++) actions[env] = (int) ((env + step / 20) % VecEnv.ACTION_COUNT);
+                    trainer.publishActions(step, actions);
+                    reference.step(actions, expected, rewards, dones);
+                }
+                trainer.markClosed();
+            }
+            game.join(TimeUnit.NANOSECONDS.toMillis(TIMEOUT));
+            assertNull(failure[0]);
+            assertEquals(STEPS, served.get());
+            assertTrue(episodes > 0);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package tatar.eljah.hamsters.headless.net;
+
+import com.badlogic.gdx.math.Rectangle;
+import org.junit.Test;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.HamsterInput;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.*;
+
+public class NetLoopbackTest {
+    private static final long WAIT_NANOS = 2_000_000_000L;
+
+    @Test
+    public void clientsFollowTheAuthoritativeWorld() throws IOException {
+        try (AuthoritativeServer server = new AuthoritativeServer(0, 9L)) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+            try (MatchClient hamsterClient = new MatchClient(address);
+                 MatchClient gradeClient = new MatchClient(address)) {
+                join(server, hamsterClient);
+                join(server, gradeClient);
+                assertTrue(hamsterClient.isHamster());
+                assertFalse(gradeClient.isHamster());
+                assertEquals(hamsterClient.getMatchId(), gradeClient.getMatchId());
+                GameWorld world = server.getWorld(hamsterClient.getMatchId());
+
+                HamsterInput idle = new HamsterInput();
+                HamsterInput right = new HamsterInput();
+                right.right = true;
+                long firstFrameBytes = 0;
+                for (int tick = 0; tick < 120; tick++) {
+                    hamsterClient.sendInput(idle);
+                    gradeClient.sendInput(tick < 60 ? right : idle);
+                    server.tick();
+                    long before = hamsterClient.getBytesReceived();
+                    awaitTick(hamsterClient, tick);
+                    awaitTick(gradeClient, tick);
+                    if (tick == 0) firstFrameBytes = hamsterClient.getBytesReceived() - before;
+                    if (tick > 100) {
+                        assertTrue("deltas should be smaller than the first full frame",
+                                hamsterClient.getBytesReceived() - before < firstFrameBytes);
+                    }
+                }
+
+                assertFalse("a steered grade disables the hamster's auto-win", world.isGameOver());
+                StateFrame frame = gradeClient.latest();
+                assertEquals(StateFrame.quantize(world.getGrade().x), frame.gradeX);
+                assertEquals(StateFrame.quantize(world.getGrade().y), frame.gradeY);
+                assertEquals(StateFrame.quantize(world.getHamster().x), frame.hamsterX);
+                for (int x = 0; x < GameWorld.GRID_WIDTH; x++) {
+                    for (int y = 0; y < GameWorld.GRID_HEIGHT; y++) {
+                        assertEquals(world.getGrid()[x][y], frame.isBlocked(x, y));
+                    }
+                }
+
+                Rectangle hamster = new Rectangle();
+                Rectangle grade = new Rectangle();
+                long now = System.nanoTime();
+                assertTrue(hamsterClient.interpolate(now, hamster, grade));
+                assertEquals(frame.tick - MatchClient.INTERPOLATION_TICKS, hamsterClient.renderTick(now), 1f);
+                assertTrue(server.bytesPerClientSecond() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void leavingEndsTheMatchForTheOtherPlayer() throws IOException {
+        try (AuthoritativeServer server = new AuthoritativeServer(0, 9L)) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+            try (MatchClient leaver = new MatchClient(address);
+                 MatchClient stayer = new MatchClient(address);
+                 MatchClient hamster = new MatchClient(address);
+                 MatchClient grade = new MatchClient(address)) {
+                join(server, leaver);
+                join(server, stayer);
+                join(server, hamster);
+                join(server, grade);
+                int firstMatch = stayer.getMatchId();
+
+                leaver.leave();
+                long deadline = System.nanoTime() + WAIT_NANOS;
+                while (stayer.isJoined()) {
+                    assertTrue("the remaining player was never told", System.nanoTime() < deadline);
+                    server.tick();
+                    stayer.poll(System.nanoTime());
+                }
+                assertEquals(1, server.getMatchCount());
+
+                join(server, stayer);
+                assertNotEquals(firstMatch, stayer.getMatchId());
+                assertNotEquals(grade.getMatchId(), stayer.getMatchId());
+                assertEquals(2, server.getMatchCount());
+            }
+        }
+    }
+
+    private static void join(AuthoritativeServer server, MatchClient client) throws IOException {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+        while (!client.isJoined()) {
+            assertTrue("no welcome from the server", System.nanoTime() < deadline);
+            client.join();
+            server.tick();
+            client.poll(System.nanoTime());
+        }
+    }
+
+    private static void awaitTick(MatchClient client, int tick) throws IOException {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+        while (client.getLatestTick() < tick) {
+            assertTrue("snapshot " + tick + " never arrived", System.nanoTime() < deadline);
+            client.poll(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tatar.eljah.hamsters.metrics.jvm;
+
+import tatar.eljah.hamsters.metrics.Histogram;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Feeds GC pause durations into a histogram from the HotSpot garbage collection notifications. The
+ * notification payload is read as plain open data by key, so nothing here links against
+ * {@code com.sun.management}; on a VM that doesn't send the notifications the histogram stays empty
+ * and the cumulative collection time gauge is still there.
+ */
+final class GcPauseMonitor implements NotificationListener {
+    static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+    private static final long MS = 1_000_000L;
+    static final long[] PAUSE_BUCKETS = {MS / 2, MS, 2 * MS, 5 * MS, 10 * MS, 20 * MS, 50 * MS, 100 * MS, 500 * MS};
+
+    private final Histogram pauses;
+
+    private GcPauseMonitor(Histogram pauses) {
+        this.pauses = pauses;
+    }
+
+    static void install(LongAdderRegistry registry) {
+        GcPauseMonitor monitor = new GcPauseMonitor(registry.histogram("jvm_gc_pause_seconds",
+                "Stop-the-world GC pauses as reported by the collectors.", PAUSE_BUCKETS));
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                ((NotificationEmitter) collector).addNotificationListener(monitor, null, null);
+            }
+        }
+        registry.gauge("jvm_gc_collection_seconds", "Cumulative collection time over all collectors.", () -> {
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return millis / 1000.0;
+        });
+        registry.gauge("jvm_heap_used_bytes", "Heap in use.",
+                () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GC_NOTIFICATION.equals(notification.getType())) return;
+        CompositeData data = (CompositeData) notification.getUserData();
+        // ZGC and Shenandoah report whole concurrent cycles on a separate "... Cycles" bean next to the pauses.
+        if (String.valueOf(data.get("gcName")).endsWith("Cycles")) return;
+        CompositeData gcInfo = (CompositeData) data.get("gcInfo");
+        long durationMillis = (Long) gcInfo.get("duration");
+        pauses.recordNanos(durationMillis * MS);
+    }
+}
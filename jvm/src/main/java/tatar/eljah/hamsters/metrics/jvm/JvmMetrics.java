@@ -0,0 +1,51 @@
+package tatar.eljah.hamsters.metrics.jvm;
+
+import tatar.eljah.hamsters.metrics.GameMetrics;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+/** Turns metrics on for desktop and headless launchers from system properties. */
+public final class JvmMetrics {
+    /** {@code true} to record metrics and publish them as MBeans. */
+    public static final String ENABLED_PROPERTY = "hamsters.metrics";
+    /** Port for the localhost Prometheus endpoint; setting it also enables metrics. */
+    public static final String PORT_PROPERTY = "hamsters.metricsPort";
+
+    // Installed before the launcher creates its libGDX application, so Gdx.app isn't there to log to yet.
+    private static final Logger LOG = Logger.getLogger(JvmMetrics.class.getName());
+
+    private JvmMetrics() {
+    }
+
+    /**
+     * Installs a {@link LongAdderRegistry} into {@link GameMetrics}, adds the GC metrics, publishes
+     * everything to the platform MBean server and starts the HTTP endpoint when a port is given.
+     * Returns the registry so launchers can add their own gauges, or null when metrics are off.
+     */
+    public static LongAdderRegistry installFromSystemProperties() {
+        String port = System.getProperty(PORT_PROPERTY);
+        boolean hasPort = port != null && !port.isEmpty();
+        if (!hasPort && !Boolean.getBoolean(ENABLED_PROPERTY)) return null;
+
+        LongAdderRegistry registry = new LongAdderRegistry();
+        GameMetrics.install(registry);
+        GcPauseMonitor.install(registry);
+        try {
+            registry.publishTo(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            LOG.warning("Metrics not published over JMX: " + e);
+        }
+        if (hasPort) {
+            try {
+                PrometheusEndpoint endpoint = new PrometheusEndpoint(registry, Integer.parseInt(port));
+                LOG.info("Metrics at http://localhost:" + endpoint.getPort() + "/metrics");
+            } catch (IOException | NumberFormatException e) {
+                LOG.warning("Metrics endpoint disabled: " + e);
+            }
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,228 @@
+package tatar.eljah.hamsters.metrics.jvm;
+
+import tatar.eljah.hamsters.metrics.Counter;
+import tatar.eljah.hamsters.metrics.Gauge;
+import tatar.eljah.hamsters.metrics.Histogram;
+import tatar.eljah.hamsters.metrics.MetricsRegistry;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Metrics backed by {@link LongAdder}s, so the game, match and trainer threads record without
+ * contending on one cache line. Reads (a Prometheus scrape or a JMX attribute) sum the stripes and
+ * may see a histogram mid-update; that is fine for monitoring. Asking for a name twice returns the
+ * metric registered first.
+ */
+public final class LongAdderRegistry implements MetricsRegistry {
+    static final String JMX_DOMAIN = "tatar.eljah.hamsters";
+    private static final Logger LOG = Logger.getLogger(LongAdderRegistry.class.getName());
+
+    private final List<Metric> metrics = new ArrayList<>();
+    private MBeanServer mbeanServer;
+
+    @Override
+    public synchronized Counter counter(String name, String help) {
+        Metric existing = find(name);
+        if (existing != null) return (AdderCounter) existing;
+        return add(new AdderCounter(name, help));
+    }
+
+    @Override
+    public synchronized Histogram histogram(String name, String help, long[] bucketBoundsNanos) {
+        Metric existing = find(name);
+        if (existing != null) return (AdderHistogram) existing;
+        for (int i = 1; i < bucketBoundsNanos.length; i++) {
+            if (bucketBoundsNanos[i] <= bucketBoundsNanos[i - 1]) throw new IllegalArgumentException("Bucket bounds must ascend");
+        }
+        return add(new AdderHistogram(name, help, bucketBoundsNanos.clone()));
+    }
+
+    @Override
+    public synchronized void gauge(String name, String help, Gauge gauge) {
+        if (find(name) == null) add(new GaugeMetric(name, help, gauge));
+    }
+
+    /** Registers every metric, and every one created later, as an MBean named {@code tatar.eljah.hamsters:type=Metric,name=...}. */
+    public synchronized void publishTo(MBeanServer server) throws JMException {
+        mbeanServer = server;
+        for (Metric metric : metrics) register(metric);
+    }
+
+    /** Appends all metrics in the Prometheus text exposition format (version 0.0.4). */
+    public void writePrometheus(StringBuilder out) {
+        Metric[] snapshot;
+        synchronized (this) {
+            snapshot = metrics.toArray(new Metric[0]);
+        }
+        for (Metric metric : snapshot) {
+            out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            out.append("# TYPE ").append(metric.name).append(' ').append(metric.type()).append('\n');
+            metric.writeSamples(out);
+        }
+    }
+
+    Metric find(String name) {
+        for (Metric metric : metrics) {
+            if (metric.name.equals(name)) return metric;
+        }
+        return null;
+    }
+
+    private <T extends Metric> T add(T metric) {
+        metrics.add(metric);
+        if (mbeanServer != null) {
+            try {
+                register(metric);
+            } catch (JMException e) {
+                LOG.warning("Can't publish " + metric.name + " over JMX: " + e);
+            }
+        }
+        return metric;
+    }
+
+    private void register(Metric metric) throws JMException {
+        ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Metric,name=" + metric.name);
+        if (!mbeanServer.isRegistered(objectName)) mbeanServer.registerMBean(new MetricBean(metric), objectName);
+    }
+
+    static String seconds(double nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        abstract String type();
+
+        abstract void writeSamples(StringBuilder out);
+    }
+
+    static final class AdderCounter extends Metric implements Counter {
+        final LongAdder count = new LongAdder();
+
+        AdderCounter(String name, String help) {
+            super(name, help);
+        }
+
+        @Override
+        public void add(long n) {
+            count.add(n);
+        }
+
+        @Override
+        String type() {
+            return "counter";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            out.append(name).append(' ').append(count.sum()).append('\n');
+        }
+    }
+
+    static final class AdderHistogram extends Metric implements Histogram {
+        final long[] bounds;
+        /** One more than {@link #bounds}: the last bucket takes everything slower. Not cumulative. */
+        final LongAdder[] buckets;
+        final LongAdder sumNanos = new LongAdder();
+
+        AdderHistogram(String name, String help, long[] bounds) {
+            super(name, help);
+            this.bounds = bounds;
+            buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        @Override
+        public void recordNanos(long nanos) {
+            int bucket = 0;
+            while (bucket < bounds.length && nanos > bounds[bucket]) bucket++;
+            buckets[bucket].increment();
+            sumNanos.add(nanos);
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) count += bucket.sum();
+            return count;
+        }
+
+        /**
+         * The upper bound of the bucket holding the {@code q} quantile, in nanoseconds; the largest
+         * bound when it falls in the overflow bucket and 0 when nothing was recorded.
+         */
+        long quantileBoundNanos(double q) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return bounds[i];
+            }
+            return bounds[bounds.length - 1];
+        }
+
+        @Override
+        String type() {
+            return "histogram";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                out.append(name).append("_bucket{le=\"").append(seconds(bounds[i])).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            cumulative += buckets[bounds.length].sum();
+            out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+            out.append(name).append("_sum ").append(seconds(sumNanos.sum())).append('\n');
+            out.append(name).append("_count ").append(cumulative).append('\n');
+        }
+    }
+
+    static final class GaugeMetric extends Metric {
+        final Gauge gauge;
+
+        GaugeMetric(String name, String help, Gauge gauge) {
+            super(name, help);
+            this.gauge = gauge;
+        }
+
+        @Override
+        String type() {
+            return "gauge";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            double value = gauge.value();
+            out.append(name).append(' ');
+            if (Double.isInfinite(value)) {
+                out.append(value > 0 ? "+Inf" : "-Inf");
+            } else {
+                out.append(value);
+            }
+            out.append('\n');
+        }
+    }
+}
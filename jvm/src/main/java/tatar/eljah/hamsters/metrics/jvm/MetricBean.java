@@ -0,0 +1,91 @@
+package tatar.eljah.hamsters.metrics.jvm;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/** Read-only JMX view of one metric: {@code Count} for counters, {@code Value} for gauges, count, sum and quantiles for histograms. */
+final class MetricBean implements DynamicMBean {
+    private final LongAdderRegistry.Metric metric;
+    private final MBeanInfo info;
+
+    MetricBean(LongAdderRegistry.Metric metric) {
+        this.metric = metric;
+        MBeanAttributeInfo[] attributes;
+        if (metric instanceof LongAdderRegistry.AdderCounter) {
+            attributes = new MBeanAttributeInfo[]{attribute("Count", "long")};
+        } else if (metric instanceof LongAdderRegistry.AdderHistogram) {
+            attributes = new MBeanAttributeInfo[]{attribute("Count", "long"), attribute("SumSeconds", "double"),
+                    attribute("P50Millis", "double"), attribute("P99Millis", "double")};
+        } else {
+            attributes = new MBeanAttributeInfo[]{attribute("Value", "double")};
+        }
+        info = new MBeanInfo(MetricBean.class.getName(), metric.help, attributes, null, new MBeanOperationInfo[0], null);
+    }
+
+    private static MBeanAttributeInfo attribute(String name, String type) {
+        return new MBeanAttributeInfo(name, type, name, true, false, false);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (metric instanceof LongAdderRegistry.AdderCounter) {
+            if (attribute.equals("Count")) return ((LongAdderRegistry.AdderCounter) metric).count.sum();
+        } else if (metric instanceof LongAdderRegistry.AdderHistogram) {
+            LongAdderRegistry.AdderHistogram histogram = (LongAdderRegistry.AdderHistogram) metric;
+            switch (attribute) {
+                case "Count":
+                    return histogram.count();
+                case "SumSeconds":
+                    return histogram.sumNanos.sum() / 1e9;
+                case "P50Millis":
+                    return histogram.quantileBoundNanos(0.5) / 1e6;
+                case "P99Millis":
+                    return histogram.quantileBoundNanos(0.99) / 1e6;
+                default:
+                    break;
+            }
+        } else if (attribute.equals("Value")) {
+            return ((LongAdderRegistry.GaugeMetric) metric).gauge.value();
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException ignored) {
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        // A metric has no operations; this is how DynamicMBean reports an unknown one.
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+}
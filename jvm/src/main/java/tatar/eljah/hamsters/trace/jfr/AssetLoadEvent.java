@@ -0,0 +1,19 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import tatar.eljah.hamsters.trace.Span;
+
+@Name("tatar.eljah.hamsters.AssetLoad")
+@Label("Asset Load")
+@Category("Hamsters")
+final class AssetLoadEvent extends jdk.jfr.Event implements Span {
+    @Label("Path")
+    String path;
+
+    @Override
+    public void finish() {
+        commit();
+    }
+}
@@ -0,0 +1,20 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tatar.eljah.hamsters.trace.Span;
+
+@Name("tatar.eljah.hamsters.FrameRender")
+@Label("Frame Render")
+@Description("Drawing one frame; the backend swaps buffers afterwards")
+@Category({"Hamsters", "Frame"})
+@StackTrace(false)
+final class FrameRenderEvent extends jdk.jfr.Event implements Span {
+    @Override
+    public void finish() {
+        commit();
+    }
+}
@@ -0,0 +1,79 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.FlightRecorder;
+import tatar.eljah.hamsters.trace.RoundSpan;
+import tatar.eljah.hamsters.trace.Span;
+import tatar.eljah.hamsters.trace.Trace;
+import tatar.eljah.hamsters.trace.TraceEvents;
+
+/**
+ * Reports the game's phases as Java Flight Recorder events, so a recording started with
+ * {@code jcmd <pid> JFR.start} shows rounds, scenes and frames next to GC and JIT activity. While
+ * nothing is recording the events are disabled and JFR reduces each span to an allocation the JIT
+ * removes.
+ */
+public final class JfrTraceEvents implements TraceEvents {
+    private JfrTraceEvents() {
+    }
+
+    /**
+     * Installs the events into {@link Trace} when this JVM has the {@code jdk.jfr} module (JDK 11+, and
+     * 8u262+), and does nothing otherwise. Returns whether they were installed.
+     */
+    public static boolean install() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+        if (!FlightRecorder.isAvailable()) return false;
+        // Registering up front lists the events in JMC's template editor before the first one fires.
+        FlightRecorder.register(FrameUpdateEvent.class);
+        FlightRecorder.register(FrameRenderEvent.class);
+        FlightRecorder.register(AssetLoadEvent.class);
+        FlightRecorder.register(RoundGenerationEvent.class);
+        FlightRecorder.register(SceneTransitionEvent.class);
+        Trace.events = new JfrTraceEvents();
+        return true;
+    }
+
+    @Override
+    public Span frameUpdate() {
+        FrameUpdateEvent event = new FrameUpdateEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Span frameRender() {
+        FrameRenderEvent event = new FrameRenderEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Span assetLoad(String path) {
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.path = path;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public RoundSpan roundGeneration() {
+        RoundGenerationEvent event = new RoundGenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void sceneTransition(String from, String to, String reason) {
+        SceneTransitionEvent event = new SceneTransitionEvent();
+        if (event.isEnabled()) {
+            event.from = from;
+            event.to = to;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
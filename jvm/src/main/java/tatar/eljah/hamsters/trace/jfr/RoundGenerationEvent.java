@@ -0,0 +1,27 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tatar.eljah.hamsters.trace.RoundSpan;
+
+@Name("tatar.eljah.hamsters.RoundGeneration")
+@Label("Round Generation")
+@Description("Generating a reachable layout and starting the round")
+@Category("Hamsters")
+@StackTrace(false)
+final class RoundGenerationEvent extends jdk.jfr.Event implements RoundSpan {
+    @Label("Seed")
+    long seed;
+    @Label("Reason")
+    String startReason;
+
+    @Override
+    public void finish(long seed, String startReason) {
+        this.seed = seed;
+        this.startReason = startReason;
+        commit();
+    }
+}
@@ -0,0 +1,19 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("tatar.eljah.hamsters.SceneTransition")
+@Label("Scene Transition")
+@Category("Hamsters")
+@StackTrace(false)
+final class SceneTransitionEvent extends jdk.jfr.Event {
+    @Label("From")
+    String from;
+    @Label("To")
+    String to;
+    @Label("Reason")
+    String reason;
+}
@@ -0,0 +1,103 @@
+package tatar.eljah.hamsters.metrics.jvm;
+
+import org.junit.After;
+import org.junit.Test;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.metrics.Counter;
+import tatar.eljah.hamsters.metrics.GameMetrics;
+import tatar.eljah.hamsters.metrics.Histogram;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class LongAdderRegistryTest {
+    @After
+    public void uninstall() {
+        GameMetrics.uninstall();
+    }
+
+    @Test
+    public void histogramWritesCumulativeBuckets() {
+        LongAdderRegistry registry = new LongAdderRegistry();
+        Histogram histogram = registry.histogram("test_seconds", "Test.", new long[]{1_000_000L, 10_000_000L});
+        histogram.recordNanos(500_000L);
+        histogram.recordNanos(5_000_000L);
+        histogram.recordNanos(5_000_000L);
+        histogram.recordNanos(50_000_000L);
+
+        StringBuilder text = new StringBuilder();
+        registry.writePrometheus(text);
+        String expected = "# HELP test_seconds Test.\n"
+                + "# TYPE test_seconds histogram\n"
+                + "test_seconds_bucket{le=\"0.001\"} 1\n"
+                + "test_seconds_bucket{le=\"0.01\"} 3\n"
+                + "test_seconds_bucket{le=\"+Inf\"} 4\n"
+                + "test_seconds_sum 0.0605\n"
+                + "test_seconds_count 4\n";
+        assertEquals(expected, text.toString());
+        assertEquals(10_000_000L, ((LongAdderRegistry.AdderHistogram) histogram).quantileBoundNanos(0.5));
+    }
+
+    @Test
+    public void sameNameReturnsSameCounter() {
+        LongAdderRegistry registry = new LongAdderRegistry();
+        Counter first = registry.counter("test_total", "Test.");
+        first.add(2);
+        registry.counter("test_total", "Again.").increment();
+        StringBuilder text = new StringBuilder();
+        registry.writePrometheus(text);
+        assertTrue(text.toString(), text.toString().endsWith("test_total 3\n"));
+    }
+
+    @Test
+    public void gameRecordsResetsAndSearches() throws Exception {
+        LongAdderRegistry registry = new LongAdderRegistry();
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        registry.publishTo(server);
+        GameMetrics.install(registry);
+        GameWorld world = new GameWorld(3L);
+        world.setSceneLogging(false);
+        world.reset("metrics test");
+        world.reset("metrics test");
+
+        ObjectName rounds = new ObjectName(LongAdderRegistry.JMX_DOMAIN + ":type=Metric,name=hamsters_rounds_total");
+        ObjectName resets = new ObjectName(LongAdderRegistry.JMX_DOMAIN + ":type=Metric,name=hamsters_reset_time_seconds");
+        ObjectName bfs = new ObjectName(LongAdderRegistry.JMX_DOMAIN + ":type=Metric,name=hamsters_bfs_calls_total");
+        assertEquals(2L, server.getAttribute(rounds, "Count"));
+        assertEquals(2L, server.getAttribute(resets, "Count"));
+        assertTrue((Long) server.getAttribute(bfs, "Count") >= 2L);
+        try {
+            server.invoke(rounds, "reset", new Object[0], new String[0]);
+            fail("metrics have no operations");
+        } catch (ReflectionException e) {
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+    }
+
+    @Test
+    public void endpointServesRegistry() throws IOException {
+        LongAdderRegistry registry = new LongAdderRegistry();
+        registry.gauge("test_fps", "Test.", () -> 60);
+        try (PrometheusEndpoint endpoint = new PrometheusEndpoint(registry, 0)) {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + endpoint.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(PrometheusEndpoint.CONTENT_TYPE, connection.getContentType());
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = connection.getInputStream()) {
+                byte[] buffer = new byte[1024];
+                for (int n; (n = in.read(buffer)) > 0; ) body.write(buffer, 0, n);
+            }
+            assertTrue(new String(body.toByteArray(), StandardCharsets.UTF_8).contains("test_fps 60.0\n"));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package tatar.eljah.hamsters.trace.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.trace.Trace;
+import tatar.eljah.hamsters.trace.TraceEvents;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JfrTraceEventsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void uninstall() {
+        Trace.events = TraceEvents.NONE;
+    }
+
+    @Test
+    public void recordingShowsRoundsAndScenes() throws IOException {
+        assertTrue(JfrTraceEvents.install());
+        GameWorld world = new GameWorld(5L);
+        world.setSceneLogging(false);
+        Path file = folder.newFile("game.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("tatar.eljah.hamsters.RoundGeneration");
+            recording.enable("tatar.eljah.hamsters.SceneTransition");
+            recording.start();
+            world.reset("jfr test");
+            world.reset("jfr test again");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> rounds = new ArrayList<>();
+        List<RecordedEvent> scenes = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.equals("tatar.eljah.hamsters.RoundGeneration")) rounds.add(event);
+            if (name.equals("tatar.eljah.hamsters.SceneTransition")) scenes.add(event);
+        }
+        assertEquals(2, rounds.size());
+        assertEquals(world.getRoundSeed(), rounds.get(1).getLong("seed"));
+        assertEquals("jfr test", rounds.get(0).getString("startReason"));
+        assertEquals(2, scenes.size());
+        assertEquals("GAMEPLAY", scenes.get(1).getString("from"));
+        assertEquals("jfr test again", scenes.get(1).getString("reason"));
+    }
+}
@@ -0,0 +1,112 @@
+package tatar.eljah.hamsters.lwjgl3;
+
+/**
+ * Picks the frame rate the desktop loop should aim for. While someone is playing it follows the
+ * measured cost of a frame, stepping down a ladder of rates when frames don't fit their budget and
+ * back up when they comfortably would. It drops to an idle rate when the window is minimized or
+ * unfocused, and to an attract rate when nobody has touched the input for a while.
+ */
+public class FramePacingGovernor {
+    static final int IDLE_FPS = 5;
+    static final int ATTRACT_FPS = 20;
+    static final long ATTRACT_AFTER_NANOS = 60_000_000_000L;
+
+    // A frame "doesn't fit" once it uses more than this share of its budget, and a faster rate is only
+    // tried when the current cost would use less than the raise share of the faster rate's budget.
+    static final float LOWER_SHARE = 0.9f;
+    static final float RAISE_SHARE = 0.5f;
+    static final int LOWER_AFTER_FRAMES = 30;
+    static final int RAISE_AFTER_FRAMES = 240;
+    private static final float COST_SMOOTHING = 0.1f;
+
+    public enum Reason {
+        STARTUP, FRAME_COST_HIGH, FRAME_COST_LOW, MINIMIZED, UNFOCUSED, NO_INPUT, ACTIVE
+    }
+
+    private final int[] ladder;
+    private int rung;
+    private int targetFps;
+    private Reason reason = Reason.STARTUP;
+
+    private double averageCostNanos = -1;
+    private int framesOverBudget;
+    private int framesUnderBudget;
+
+    private boolean focused = true;
+    private boolean iconified;
+    private long lastInputNanos;
+
+    public FramePacingGovernor(int refreshRate, long nowNanos) {
+        int top = Math.max(refreshRate, 30);
+        ladder = top > 60 ? new int[]{top, 60, 30, 20} : top > 30 ? new int[]{top, 30, 20} : new int[]{top, 20};
+        targetFps = ladder[0];
+        lastInputNanos = nowNanos;
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public double getAverageFrameCostMillis() {
+        return averageCostNanos < 0 ? 0 : averageCostNanos / 1e6;
+    }
+
+    public void setFocused(boolean focused) {
+        this.focused = focused;
+    }
+
+    public void setIconified(boolean iconified) {
+        this.iconified = iconified;
+    }
+
+    public void onInput(long nowNanos) {
+        lastInputNanos = nowNanos;
+    }
+
+    /**
+     * Feeds the CPU time one frame took (update and draw, without waiting for vsync) and
+     * re-evaluates the target.
+     *
+     * @return whether the target frame rate changed
+     */
+    public boolean recordFrame(long costNanos, long nowNanos) {
+        averageCostNanos = averageCostNanos < 0 ? costNanos
+                : averageCostNanos + (costNanos - averageCostNanos) * COST_SMOOTHING;
+
+        if (iconified) return retarget(IDLE_FPS, Reason.MINIMIZED);
+        if (!focused) return retarget(IDLE_FPS, Reason.UNFOCUSED);
+        if (nowNanos - lastInputNanos >= ATTRACT_AFTER_NANOS) return retarget(Math.min(ATTRACT_FPS, ladder[rung]), Reason.NO_INPUT);
+
+        double budget = 1e9 / ladder[rung];
+        if (averageCostNanos > budget * LOWER_SHARE && rung < ladder.length - 1) {
+            framesUnderBudget = 0;
+            if (++framesOverBudget >= LOWER_AFTER_FRAMES) {
+                framesOverBudget = 0;
+                rung++;
+                return retarget(ladder[rung], Reason.FRAME_COST_HIGH);
+            }
+        } else if (rung > 0 && averageCostNanos < 1e9 / ladder[rung - 1] * RAISE_SHARE) {
+            framesOverBudget = 0;
+            if (++framesUnderBudget >= RAISE_AFTER_FRAMES) {
+                framesUnderBudget = 0;
+                rung--;
+                return retarget(ladder[rung], Reason.FRAME_COST_LOW);
+            }
+        } else {
+            framesOverBudget = 0;
+            framesUnderBudget = 0;
+        }
+        return retarget(ladder[rung], targetFps == ladder[rung] ? reason : Reason.ACTIVE);
+    }
+
+    private boolean retarget(int fps, Reason newReason) {
+        if (fps == targetFps) return false;
+        targetFps = fps;
+        reason = newReason;
+        return true;
+    }
+}
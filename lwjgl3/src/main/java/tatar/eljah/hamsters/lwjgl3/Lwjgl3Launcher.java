@@ -1,18 +1,63 @@
 package tatar.eljah.hamsters.lwjgl3;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import tatar.eljah.hamsters.CrashHandler;
 import tatar.eljah.hamsters.Main;
+import tatar.eljah.hamsters.SimulationThread;
+import tatar.eljah.hamsters.chunks.ChunkedMain;
+import tatar.eljah.hamsters.levels.MappedLevelPacks;
+import tatar.eljah.hamsters.metrics.jvm.JvmMetrics;
+import tatar.eljah.hamsters.metrics.jvm.LongAdderRegistry;
+import tatar.eljah.hamsters.startup.StartupProbe;
+import tatar.eljah.hamsters.telemetry.TelemetryWriter;
+import tatar.eljah.hamsters.trace.jfr.JfrTraceEvents;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
+    /** {@code chunked} starts the scrolling open world instead of the single-screen arena. */
+    static final String WORLD_PROPERTY = "hamsters.world";
+    /** {@code true} starts with the bot playing the hamster. */
+    static final String BOT_PROPERTY = "hamsters.bot";
+
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
         createApplication();
     }
 
     private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+        if (StartupProbe.isEnabled()) {
+            // Startup benchmark: report once the first frame has been drawn, then quit.
+            return new Lwjgl3Application(new Main(MappedLevelPacks::load) {
+                @Override
+                public void render() {
+                    super.render();
+                    if (StartupProbe.ready("lwjgl3")) Gdx.app.exit();
+                }
+            }, getDefaultConfiguration());
+        }
+        if ("chunked".equals(System.getProperty(WORLD_PROPERTY))) {
+            return new Lwjgl3Application(new ChunkedMain(), getDefaultConfiguration());
+        }
+        Lwjgl3ApplicationConfiguration configuration = getDefaultConfiguration();
+        FramePacingGovernor governor = new FramePacingGovernor(
+                Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate, System.nanoTime());
+        JfrTraceEvents.install();
+        LongAdderRegistry metrics = JvmMetrics.installFromSystemProperties();
+        if (metrics != null) {
+            metrics.gauge("hamsters_target_fps", "Frame rate the pacing governor currently allows.", governor::getTargetFps);
+            metrics.gauge("hamsters_frame_cost_seconds", "Smoothed CPU cost of one frame.",
+                    () -> governor.getAverageFrameCostMillis() / 1000.0);
+        }
+        Main main = new Main(MappedLevelPacks::load);
+        main.setRoundListener(TelemetryWriter.fromSystemProperties());
+        main.setAutoPlay(Boolean.getBoolean(BOT_PROPERTY));
+        main.setSimulationLoop(new SimulationThread());
+        CrashHandler.install(main);
+        PacedApplicationListener listener = new PacedApplicationListener(main, governor);
+        configuration.setWindowListener(listener.windowListener());
+        return new Lwjgl3Application(listener, configuration);
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
@@ -27,6 +72,9 @@ public class Lwjgl3Launcher {
         //// If you remove the above line and set Vsync to false, you can get unlimited FPS, which can be
         //// useful for testing performance, but can also be very stressful to some hardware.
         //// You may also need to configure GPU drivers to fully disable Vsync; this can cause screen tearing.
+        //// The FramePacingGovernor lowers the rate further at runtime; this is only the ceiling.
+        //// While minimized, libGDX stops rendering and polls the window at the idle rate.
+        configuration.setIdleFPS(FramePacingGovernor.IDLE_FPS);
         configuration.setWindowedMode(800, 600);
         //// You can change these files; they are in lwjgl3/src/main/resources/ .
         configuration.setWindowIcon("libgdx128.png", "libgdx64.png", "libgdx32.png", "libgdx16.png");
@@ -0,0 +1,140 @@
+package tatar.eljah.hamsters.lwjgl3;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3WindowAdapter;
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerMapping;
+import com.badlogic.gdx.controllers.Controllers;
+
+/**
+ * Wraps the game listener and limits the frame rate to whatever the {@link FramePacingGovernor}
+ * currently allows, sleeping before each frame so input is polled as late as possible.
+ */
+class PacedApplicationListener implements ApplicationListener {
+    private static final String TAG = "FramePacing";
+    // The last stretch before a frame deadline is yielded rather than slept, since sleep overshoots.
+    private static final long YIELD_WINDOW_NANOS = 1_000_000L;
+    // Same as the game's; stick jitter around the center isn't input.
+    private static final float STICK_DEAD_ZONE = 0.5f;
+
+    private final ApplicationListener delegate;
+    private final FramePacingGovernor governor;
+    private long nextFrameNanos;
+    private int lastMouseX;
+    private int lastMouseY;
+
+    PacedApplicationListener(ApplicationListener delegate, FramePacingGovernor governor) {
+        this.delegate = delegate;
+        this.governor = governor;
+    }
+
+    /** Forwards focus and minimize events from the window to the governor. */
+    Lwjgl3WindowAdapter windowListener() {
+        return new Lwjgl3WindowAdapter() {
+            @Override
+            public void iconified(boolean isIconified) {
+                governor.setIconified(isIconified);
+            }
+
+            @Override
+            public void focusLost() {
+                governor.setFocused(false);
+            }
+
+            @Override
+            public void focusGained() {
+                governor.setFocused(true);
+                governor.onInput(System.nanoTime());
+            }
+        };
+    }
+
+    @Override
+    public void create() {
+        delegate.create();
+        Gdx.app.log(TAG, "target " + governor.getTargetFps() + " fps (" + governor.getReason() + ")");
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        delegate.resize(width, height);
+    }
+
+    @Override
+    public void render() {
+        waitForNextFrame();
+        long start = System.nanoTime();
+        if (hadInput()) governor.onInput(start);
+        delegate.render();
+        long end = System.nanoTime();
+        if (governor.recordFrame(end - start, end)) {
+            Gdx.app.log(TAG, String.format("target %d fps (%s, frame cost %.2f ms)",
+                    governor.getTargetFps(), governor.getReason(), governor.getAverageFrameCostMillis()));
+        }
+    }
+
+    private void waitForNextFrame() {
+        long period = 1_000_000_000L / governor.getTargetFps();
+        long now = System.nanoTime();
+        if (nextFrameNanos == 0 || now - nextFrameNanos > period) {
+            // First frame, or we fell more than a frame behind: don't try to catch up.
+            nextFrameNanos = now;
+        }
+        long remaining;
+        while ((remaining = nextFrameNanos - System.nanoTime()) > 0) {
+            if (remaining > YIELD_WINDOW_NANOS) {
+                try {
+                    Thread.sleep((remaining - YIELD_WINDOW_NANOS) / 1_000_000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+        nextFrameNanos += period;
+    }
+
+    private boolean hadInput() {
+        Input input = Gdx.input;
+        boolean moved = input.getX() != lastMouseX || input.getY() != lastMouseY;
+        lastMouseX = input.getX();
+        lastMouseY = input.getY();
+        return moved || input.isTouched() || input.isKeyPressed(Input.Keys.ANY_KEY) || hadControllerInput();
+    }
+
+    /** True while the controller the game reads has a button held or a stick pushed, so gamepad players aren't idle. */
+    private static boolean hadControllerInput() {
+        Controller controller = Controllers.getCurrent();
+        if (controller == null) return false;
+        for (int button = controller.getMinButtonIndex(); button <= controller.getMaxButtonIndex(); button++) {
+            if (controller.getButton(button)) return true;
+        }
+        // Only the sticks: some pads rest their trigger axes at -1.
+        ControllerMapping mapping = controller.getMapping();
+        return pushed(controller, mapping.axisLeftX) || pushed(controller, mapping.axisLeftY)
+                || pushed(controller, mapping.axisRightX) || pushed(controller, mapping.axisRightY);
+    }
+
+    private static boolean pushed(Controller controller, int axis) {
+        return Math.abs(controller.getAxis(axis)) >= STICK_DEAD_ZONE;
+    }
+
+    @Override
+    public void pause() {
+        delegate.pause();
+    }
+
+    @Override
+    public void resume() {
+        delegate.resume();
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.InputStreamReader;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Adds some utilities to ensure that the JVM was started with the
@@ -36,6 +37,7 @@ import java.util.ArrayList;
 public class StartupHelper {
 
     private static final String JVM_RESTARTED_ARG = "jvmIsRestarted";
+    static final String CDS_ARCHIVE_PROPERTY = "hamsters.cdsArchive";
 
     private StartupHelper() {
         throw new UnsupportedOperationException();
@@ -115,7 +117,14 @@ public class StartupHelper {
         jvmArgs.add(javaExecPath);
         jvmArgs.add("-XstartOnFirstThread");
         jvmArgs.add("-D" + JVM_RESTARTED_ARG + "=true");
-        jvmArgs.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        List<String> inputArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        jvmArgs.addAll(inputArguments);
+        // The start scripts already pass the AppCDS archive; a plain "java -jar" launch picks up the one next to the jar.
+        File cdsArchive = findAppCdsArchive(inputArguments);
+        if (cdsArchive != null) {
+            jvmArgs.add("-XX:SharedArchiveFile=" + cdsArchive.getAbsolutePath());
+            jvmArgs.add("-Xshare:auto");
+        }
         jvmArgs.add("-cp");
         jvmArgs.add(System.getProperty("java.class.path"));
         String mainClass = System.getenv("JAVA_MAIN_CLASS_" + pid);
@@ -155,6 +164,52 @@ public class StartupHelper {
         return true;
     }
 
+    /**
+     * Looks for the AppCDS archive produced by the {@code generateCdsArchive}
+     * Gradle task, either at the path given by the {@value #CDS_ARCHIVE_PROPERTY}
+     * system property or as {@code hamsters.jsa} next to the running jar.
+     * Dynamic archives need Java 13 or newer, so nothing is returned on older
+     * JVMs or when the current JVM was already started with an archive.
+     *
+     * @param inputArguments
+     *            the arguments the current JVM was started with
+     * @return the archive to pass to the new JVM, or null if there is none
+     */
+    static File findAppCdsArchive(List<String> inputArguments) {
+        for (String argument : inputArguments) {
+            if (argument.startsWith("-XX:SharedArchiveFile=")) {
+                return null;
+            }
+        }
+        if (javaFeatureVersion() < 13) {
+            return null;
+        }
+        String configured = System.getProperty(CDS_ARCHIVE_PROPERTY);
+        if (configured != null) {
+            File archive = new File(configured);
+            return archive.isFile() ? archive : null;
+        }
+        try {
+            File codeSource = new File(StartupHelper.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            File archive = new File(codeSource.getParentFile(), "hamsters.jsa");
+            return codeSource.isFile() && archive.isFile() ? archive : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int javaFeatureVersion() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 8;
+        }
+    }
+
     /**
      * Starts a new JVM if the application was started on macOS without the
      * {@code -XstartOnFirstThread} argument. Returns whether a new JVM was
@@ -0,0 +1,60 @@
+package tatar.eljah.hamsters.lwjgl3;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FramePacingGovernorTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void expensiveFramesLowerTheTargetAndCheapFramesRaiseItAgain() {
+        long now = 0;
+        FramePacingGovernor governor = new FramePacingGovernor(60, now);
+        assertEquals(60, governor.getTargetFps());
+
+        for (int i = 0; i < FramePacingGovernor.LOWER_AFTER_FRAMES * 2; i++) {
+            now += 20 * MS;
+            governor.onInput(now);
+            governor.recordFrame(20 * MS, now);
+        }
+        assertEquals(30, governor.getTargetFps());
+        assertEquals(FramePacingGovernor.Reason.FRAME_COST_HIGH, governor.getReason());
+
+        for (int i = 0; i < FramePacingGovernor.RAISE_AFTER_FRAMES * 2; i++) {
+            now += 33 * MS;
+            governor.onInput(now);
+            governor.recordFrame(2 * MS, now);
+        }
+        assertEquals(60, governor.getTargetFps());
+        assertEquals(FramePacingGovernor.Reason.FRAME_COST_LOW, governor.getReason());
+    }
+
+    @Test
+    public void unfocusedOrMinimizedWindowDropsToIdleRate() {
+        FramePacingGovernor governor = new FramePacingGovernor(144, 0);
+        governor.setFocused(false);
+        assertTrue(governor.recordFrame(MS, MS));
+        assertEquals(FramePacingGovernor.IDLE_FPS, governor.getTargetFps());
+        assertEquals(FramePacingGovernor.Reason.UNFOCUSED, governor.getReason());
+
+        governor.setFocused(true);
+        governor.recordFrame(MS, 2 * MS);
+        assertEquals(144, governor.getTargetFps());
+
+        governor.setIconified(true);
+        governor.recordFrame(MS, 3 * MS);
+        assertEquals(FramePacingGovernor.Reason.MINIMIZED, governor.getReason());
+    }
+
+    @Test
+    public void noInputForAWhileDropsToAttractRate() {
+        FramePacingGovernor governor = new FramePacingGovernor(60, 0);
+        governor.recordFrame(MS, FramePacingGovernor.ATTRACT_AFTER_NANOS + 1);
+        assertEquals(FramePacingGovernor.ATTRACT_FPS, governor.getTargetFps());
+
+        long now = FramePacingGovernor.ATTRACT_AFTER_NANOS + 2;
+        governor.onInput(now);
+        governor.recordFrame(MS, now);
+        assertEquals(60, governor.getTargetFps());
+    }
+}
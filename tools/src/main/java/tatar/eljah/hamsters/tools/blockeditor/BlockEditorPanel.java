@@ -10,9 +10,12 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -27,12 +30,23 @@ import java.util.List;
 import java.util.Locale;
 
 class BlockEditorPanel extends JPanel {
+    /** Largest SVG raster kept, in device pixels; past it the vector tree is painted on every repaint. */
+    private static final long MAX_SVG_RASTER_PIXELS = 16L * 1024 * 1024;
+    // Half the selected region's stroke plus antialiasing, added around everything repainted after a move.
+    private static final int DIRTY_MARGIN = 3;
+
+    // Loaded and rasterized once per process; panels only read it.
+    private static BufferedImage sharedBackground;
+
     private final BufferedImage backgroundImage;
     private final List<Double> guideLineCenters;
     private SvgHandle svgHandle;
     private Rectangle2D svgBounds;
     private double svgScale = 1.0;
     private double svgY = 0.0;
+    // The SVG drawn at svgRasterScale (zoom times device scale); null with a scale set means too large to keep.
+    private BufferedImage svgRaster;
+    private double svgRasterScale;
 
     private final List<BlockRegion> ascenders = new ArrayList<>();
     private final List<BlockRegion> descenders = new ArrayList<>();
@@ -89,6 +103,8 @@ class BlockEditorPanel extends JPanel {
     void loadSvg(File file) throws IOException {
         svgHandle = SvgLoader.load(file);
         svgBounds = svgHandle.getBounds();
+        svgRaster = null;
+        svgRasterScale = 0.0;
         svgScale = 1.0;
         svgY = (backgroundImage.getHeight() - getSvgDrawHeight()) / 2.0;
         creationType = null;
@@ -101,7 +117,14 @@ class BlockEditorPanel extends JPanel {
         repaint();
     }
 
-    private static BufferedImage loadBackgroundImage() {
+    private static synchronized BufferedImage loadBackgroundImage() {
+        if (sharedBackground == null) {
+            sharedBackground = readBackgroundImage();
+        }
+        return sharedBackground;
+    }
+
+    private static BufferedImage readBackgroundImage() {
         try {
             try (InputStream pngStream = BlockEditorPanel.class.getResourceAsStream("/liner.png")) {
                 if (pngStream != null) {
@@ -365,11 +388,19 @@ class BlockEditorPanel extends JPanel {
             double svgHeight = getSvgDrawHeight();
             double svgX = (backgroundImage.getWidth() - svgWidth) / 2.0;
 
+            // HiDPI screens scale the panel's graphics; the raster is drawn for the device pixels.
+            double deviceScale = g2d.getTransform().getScaleX();
+            BufferedImage raster = getSvgRaster(deviceScale);
             Graphics2D svgGraphics = (Graphics2D) g2d.create();
             svgGraphics.translate(svgX, svgY);
-            svgGraphics.scale(svgScale, svgScale);
-            svgGraphics.translate(-svgBounds.getX(), -svgBounds.getY());
-            svgHandle.getGraphicsNode().paint(svgGraphics);
+            if (raster != null) {
+                svgGraphics.scale(1.0 / deviceScale, 1.0 / deviceScale);
+                svgGraphics.drawImage(raster, 0, 0, null);
+            } else {
+                svgGraphics.scale(svgScale, svgScale);
+                svgGraphics.translate(-svgBounds.getX(), -svgBounds.getY());
+                svgHandle.getGraphicsNode().paint(svgGraphics);
+            }
             svgGraphics.dispose();
 
             Rectangle2D svgOutline = new Rectangle2D.Double(svgX, svgY, svgWidth, svgHeight);
@@ -399,6 +430,50 @@ class BlockEditorPanel extends JPanel {
         g2d.dispose();
     }
 
+    /**
+     * The SVG rasterized at the current zoom times {@code deviceScale}, drawn again only when that
+     * changes or another SVG is loaded, so dragging blits an image instead of walking the vector tree.
+     * Returns null when the raster would be larger than {@link #MAX_SVG_RASTER_PIXELS}.
+     */
+    private BufferedImage getSvgRaster(double deviceScale) {
+        double scale = svgScale * deviceScale;
+        if (svgRasterScale == scale) {
+            return svgRaster;
+        }
+        svgRaster = null;
+        svgRasterScale = scale;
+        int width = (int) Math.ceil(svgBounds.getWidth() * scale);
+        int height = (int) Math.ceil(svgBounds.getHeight() * scale);
+        if (width <= 0 || height <= 0 || (long) width * height > MAX_SVG_RASTER_PIXELS) {
+            return null;
+        }
+        // A compatible image can be kept in video memory by Java2D, which makes the blit cheaper still.
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.scale(scale, scale);
+        graphics.translate(-svgBounds.getX(), -svgBounds.getY());
+        svgHandle.getGraphicsNode().paint(graphics);
+        graphics.dispose();
+        svgRaster = image;
+        return image;
+    }
+
+    /** Repaints only what covered {@code before} and what covers {@code after}, with room for strokes. */
+    private void repaintMoved(Rectangle2D before, Rectangle2D after) {
+        Rectangle dirty = before.createUnion(after).getBounds();
+        dirty.grow(DIRTY_MARGIN, DIRTY_MARGIN);
+        repaint(dirty);
+    }
+
+    private static Rectangle2D normalized(Rectangle2D.Double rect) {
+        return new Rectangle2D.Double(Math.min(rect.x, rect.x + rect.width), Math.min(rect.y, rect.y + rect.height),
+                Math.abs(rect.width), Math.abs(rect.height));
+    }
+
     private double getSvgDrawWidth() {
         if (svgBounds == null) {
             return 0.0;
@@ -524,25 +599,28 @@ class BlockEditorPanel extends JPanel {
             }
             Point point = e.getPoint();
             if (creationType != null && creationRect != null && creationStart != null) {
+                Rectangle2D before = normalized(creationRect);
                 creationRect.width = point.x - creationStart.x;
                 creationRect.height = point.y - creationStart.y;
-                repaint();
+                repaintMoved(before, normalized(creationRect));
                 return;
             }
             if (draggingRegion && selectedRegion != null && regionInitialRect != null && regionDragStart != null) {
                 double dx = point.x - regionDragStart.x;
                 double dy = point.y - regionDragStart.y;
                 Rectangle2D.Double rect = selectedRegion.getRect();
+                Rectangle2D before = (Rectangle2D) rect.clone();
                 rect.x = regionInitialRect.x + dx;
                 rect.y = regionInitialRect.y + dy;
-                repaint();
+                repaintMoved(before, rect);
                 return;
             }
             if (draggingSvg) {
+                Rectangle2D before = getSvgDrawBounds();
                 double dy = point.y - dragStartY;
                 svgY = initialSvgY + dy;
                 clampSvgY();
-                repaint();
+                repaintMoved(before, getSvgDrawBounds());
             }
         }
 
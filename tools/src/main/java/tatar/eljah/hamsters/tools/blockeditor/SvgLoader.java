@@ -13,25 +13,58 @@ import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Parses SVG files into GVT trees. Files are cached by path and validated against their modification
+ * time and length, so flipping between glyphs parses each one once until it changes on disk. The
+ * least recently opened file is dropped past {@link #CACHE_SIZE}. The parser factory and GVT builder
+ * are shared; loading is synchronized because neither is thread-safe.
+ */
 final class SvgLoader {
+    /** Trees kept for reopening; a glyph's tree is small, so this bounds the count rather than bytes. */
+    static final int CACHE_SIZE = 256;
+
+    private static final Map<String, CachedSvg> CACHE = new LinkedHashMap<String, CachedSvg>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSvg> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private static final GVTBuilder BUILDER = new GVTBuilder();
+    private static SAXSVGDocumentFactory factory;
+
     private SvgLoader() {
     }
 
-    static SvgHandle load(File file) throws IOException {
-        String parser = XMLResourceDescriptor.getXMLParserClassName();
-        SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(parser);
-        SVGDocument document = factory.createSVGDocument(file.toURI().toString());
-        return buildHandle(document);
+    static synchronized SvgHandle load(File file) throws IOException {
+        File canonical = file.getCanonicalFile();
+        String path = canonical.getPath();
+        long modified = canonical.lastModified();
+        long length = canonical.length();
+        CachedSvg cached = CACHE.get(path);
+        if (cached != null && cached.modified == modified && cached.length == length) {
+            return cached.handle;
+        }
+        SVGDocument document = factory().createSVGDocument(canonical.toURI().toString());
+        SvgHandle handle = buildHandle(document);
+        CACHE.put(path, new CachedSvg(modified, length, handle));
+        return handle;
     }
 
-    static SvgHandle load(InputStream inputStream, String documentUri) throws IOException {
-        String parser = XMLResourceDescriptor.getXMLParserClassName();
-        SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(parser);
-        SVGDocument document = factory.createSVGDocument(documentUri, inputStream);
+    static synchronized SvgHandle load(InputStream inputStream, String documentUri) throws IOException {
+        SVGDocument document = factory().createSVGDocument(documentUri, inputStream);
         return buildHandle(document);
     }
 
+    private static SAXSVGDocumentFactory factory() {
+        if (factory == null) {
+            factory = new SAXSVGDocumentFactory(XMLResourceDescriptor.getXMLParserClassName());
+        }
+        return factory;
+    }
+
     private static SvgHandle buildHandle(SVGDocument document) {
         UserAgentAdapter userAgent = new UserAgentAdapter();
         DocumentLoader loader = new DocumentLoader(userAgent);
@@ -39,8 +72,7 @@ final class SvgLoader {
         context.setDynamicState(BridgeContext.STATIC);
 
         try {
-            GVTBuilder builder = new GVTBuilder();
-            GraphicsNode node = builder.build(context, document);
+            GraphicsNode node = BUILDER.build(context, document);
 
             Rectangle2D bounds = node.getPrimitiveBounds();
             if (bounds == null) {
@@ -56,4 +88,16 @@ final class SvgLoader {
             context.dispose();
         }
     }
+
+    private static final class CachedSvg {
+        final long modified;
+        final long length;
+        final SvgHandle handle;
+
+        CachedSvg(long modified, long length, SvgHandle handle) {
+            this.modified = modified;
+            this.length = length;
+            this.handle = handle;
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package tatar.eljah.hamsters.tools.levels;
+
+import com.badlogic.gdx.math.Rectangle;
+import tatar.eljah.hamsters.GameWorld;
+import tatar.eljah.hamsters.levels.Difficulty;
+import tatar.eljah.hamsters.levels.LevelPack;
+import tatar.eljah.hamsters.levels.LevelRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates levels with the game's own round generator, re-validates and measures them, drops
+ * duplicates and writes them as a {@link LevelPack} sorted by difficulty into three equal bands.
+ * <p>
+ * Usage: {@code LevelPackGenerator <output file> [count] [seed]}
+ */
+public final class LevelPackGenerator {
+    private static final int GRID_CELLS = GameWorld.GRID_WIDTH * GameWorld.GRID_HEIGHT;
+    private static final int MAX_ATTEMPTS_PER_LEVEL = 50;
+
+    private LevelPackGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LevelPackGenerator <output file> [count] [seed]");
+            System.exit(1);
+        }
+        File output = new File(args[0]);
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        LevelRecord[] levels = generate(count, seed);
+        ByteBuffer buffer = ByteBuffer.allocate(LevelPack.encodedSize(levels.length));
+        LevelPack.write(levels, buffer);
+        Files.write(output.toPath(), buffer.array());
+
+        System.out.println("Wrote " + levels.length + " levels (" + buffer.capacity() + " bytes) to " + output);
+        for (Difficulty band : Difficulty.values()) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int size = 0;
+            for (LevelRecord level : levels) {
+                if (level.band != band) continue;
+                min = Math.min(min, level.score());
+                max = Math.max(max, level.score());
+                size++;
+            }
+            if (size > 0) System.out.println("  " + band + ": " + size + " levels, difficulty score " + min + ".." + max);
+        }
+    }
+
+    static LevelRecord[] generate(int count, long seed) {
+        GameWorld world = new GameWorld(seed);
+        world.setSceneLogging(false);
+        List<LevelRecord> levels = new ArrayList<>(count);
+        Set<String> seen = new HashSet<>();
+        long attempts = 0;
+        while (levels.size() < count) {
+            if (++attempts > (long) count * MAX_ATTEMPTS_PER_LEVEL) {
+                throw new IllegalStateException("Only found " + levels.size() + " distinct levels after " + attempts + " attempts");
+            }
+            world.reset();
+            LevelRecord level = capture(world);
+            if (!measure(level)) continue;
+            String key = layoutKey(world.getGrid(), level.gradeCell);
+            if (seen.add(key)) levels.add(level);
+        }
+
+        LevelRecord[] sorted = levels.toArray(new LevelRecord[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.score(), b.score()));
+        Difficulty[] bands = Difficulty.values();
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i].band = bands[(int) ((long) i * bands.length / sorted.length)];
+        }
+        return sorted;
+    }
+
+    private static LevelRecord capture(GameWorld world) {
+        LevelRecord level = new LevelRecord();
+        boolean[][] grid = world.getGrid();
+        for (int x = 0; x < GameWorld.GRID_WIDTH; x++) {
+            for (int y = 0; y < GameWorld.GRID_HEIGHT; y++) {
+                if (grid[x][y]) {
+                    level.setBlocked(LevelRecord.cell(x, y), true);
+                    level.blockCount++;
+                }
+            }
+        }
+        Rectangle hamster = world.getHamster();
+        Rectangle grade = world.getGrade();
+        level.hamsterCell = LevelRecord.cell((int) (hamster.x / GameWorld.CELL_SIZE), (int) (hamster.y / GameWorld.CELL_SIZE));
+        level.gradeCell = LevelRecord.cell((int) (grade.x / GameWorld.CELL_SIZE), (int) (grade.y / GameWorld.CELL_SIZE));
+        return level;
+    }
+
+    /** Fills in the metrics and re-checks that the grade and the cell above it are reachable. */
+    static boolean measure(LevelRecord level) {
+        int[] distances = new int[GRID_CELLS];
+        level.reachableCells = distances(level, -1, distances);
+        level.pathLength = distances[level.gradeCell];
+        int above = level.gradeCell + 1;
+        if (level.pathLength < 0 || LevelRecord.cellY(level.gradeCell) + 1 >= GameWorld.GRID_HEIGHT || level.isBlocked(above)) {
+            return false;
+        }
+        distances(level, level.gradeCell, distances);
+        level.abovePathLength = distances[above];
+        return level.abovePathLength >= 0;
+    }
+
+    private static int distances(LevelRecord level, int extraBlocked, int[] distances) {
+        Arrays.fill(distances, -1);
+        int[] queue = new int[GRID_CELLS];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = level.hamsterCell;
+        distances[level.hamsterCell] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = LevelRecord.cellX(cell);
+            int y = LevelRecord.cellY(cell);
+            int[][] neighbours = {{x + 1, y}, {x - 1, y}, {x, y + 1}, {x, y - 1}};
+            for (int[] n : neighbours) {
+                if (n[0] < 0 || n[1] < 0 || n[0] >= GameWorld.GRID_WIDTH || n[1] >= GameWorld.GRID_HEIGHT) continue;
+                int next = LevelRecord.cell(n[0], n[1]);
+                if (next == extraBlocked || level.isBlocked(next) || distances[next] >= 0) continue;
+                distances[next] = distances[cell] + 1;
+                queue[tail++] = next;
+            }
+        }
+        return tail;
+    }
+
+    private static String layoutKey(boolean[][] grid, int gradeCell) {
+        StringBuilder key = new StringBuilder(GRID_CELLS + 4);
+        for (boolean[] column : grid) {
+            for (boolean cell : column) {
+                key.append(cell ? '#' : '.');
+            }
+        }
+        return key.append(gradeCell).toString();
+    }
+}